@@ -0,0 +1,90 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.github.markozajc.lithium.processes.LithiumProcess;
+import com.github.markozajc.lithium.processes.ProcessManager;
+import com.github.markozajc.lithium.processes.VirtualThreads;
+import com.github.markozajc.lithium.processes.context.ProcessContext;
+import com.github.markozajc.lithium.utilities.MessageLock;
+
+/**
+ * Compares running processes thread-per-process (on a cached thread pool) with
+ * running them on virtual threads, using a number of concurrent "dialogs": processes
+ * that block in {@link MessageLock#receive()} until a reply arrives after a delay.
+ * Reports the time until every dialog is blocked, the total time, the peak number of
+ * live threads and the heap used while all dialogs are blocked.
+ * <p>
+ * This is a single-file program; run it with Java 21 or newer against the packaged
+ * (multi-release) JAR, as the Java 21 classes are only picked up from a JAR:
+ *
+ * <pre>
+ * mvn -B package
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp "target/lithium-0.1.jar:$(cat cp.txt)" src/benchmark/ProcessManagerBenchmark.java [dialogs] [reply delay in ms]
+ * </pre>
+ *
+ * @author Marko Zajc
+ */
+public class ProcessManagerBenchmark {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private ProcessManagerBenchmark() {}
+
+	public static void main(String[] args) throws Exception {
+		int dialogs = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		long replyDelay = args.length > 1 ? Long.parseLong(args[1]) : 1_000;
+
+		ScheduledExecutorService replies = Executors.newScheduledThreadPool(4);
+
+		run("thread-per-process", new ProcessManager(Executors.newCachedThreadPool()), dialogs, replyDelay, replies);
+		if (VirtualThreads.isSupported())
+			run("virtual threads", ProcessManager.withVirtualThreads(dialogs, dialogs), dialogs, replyDelay, replies);
+		else
+			System.out.println("Virtual threads are not supported on this runtime, skipping.");
+
+		replies.shutdown();
+	}
+
+	private static void run(String name, ProcessManager manager, int dialogs, long replyDelay,
+							ScheduledExecutorService replies) throws Exception {
+		System.gc();
+		THREADS.resetPeakThreadCount();
+		CountDownLatch blocked = new CountDownLatch(dialogs);
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[dialogs];
+
+		long start = System.nanoTime();
+		for (int i = 0; i < dialogs; i++) {
+			futures[i] = manager.submitProcess(new LithiumProcess<String>(new ProcessContext(null, null)) {
+
+				@Override
+				public String call() throws Exception {
+					MessageLock<String> reply = new MessageLock<>();
+					replies.schedule(() -> reply.send("yes"), replyDelay, TimeUnit.MILLISECONDS);
+					blocked.countDown();
+					return reply.receive();
+				}
+			});
+		}
+
+		blocked.await();
+		long allBlocked = System.nanoTime() - start;
+		Runtime runtime = Runtime.getRuntime();
+		long heap = runtime.totalMemory() - runtime.freeMemory();
+
+		CompletableFuture.allOf(futures).join();
+		long total = System.nanoTime() - start;
+
+		System.out.printf("%-20s dialogs: %d, all blocked after: %d ms, total: %d ms, peak threads: %d, heap: %d MiB%n",
+			name, dialogs, TimeUnit.NANOSECONDS.toMillis(allBlocked), TimeUnit.NANOSECONDS.toMillis(total),
+			THREADS.getPeakThreadCount(), heap / (1024 * 1024));
+
+		manager.close();
+	}
+
+}
@@ -1,12 +1,18 @@
 package com.github.markozajc.lithium;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.security.auth.login.LoginException;
 
 import org.slf4j.Logger;
@@ -15,14 +21,22 @@ import org.slf4j.LoggerFactory;
 import com.github.markozajc.lithium.commands.Command;
 import com.github.markozajc.lithium.commands.CommandList;
 import com.github.markozajc.lithium.commands.CommandListBuilder;
+import com.github.markozajc.lithium.commands.cache.Cacheable;
+import com.github.markozajc.lithium.commands.cache.ResultCache;
 import com.github.markozajc.lithium.data.properties.PropertyManager;
 import com.github.markozajc.lithium.data.providers.Provider;
 import com.github.markozajc.lithium.data.providers.ProviderManager;
+import com.github.markozajc.lithium.data.providers.impl.PrefixProvider;
 import com.github.markozajc.lithium.data.source.DataSource;
+import com.github.markozajc.lithium.handlers.BusyHandler;
 import com.github.markozajc.lithium.handlers.CommandHandler;
 import com.github.markozajc.lithium.handlers.ExceptionHandler;
+import com.github.markozajc.lithium.handlers.UnknownCommandHandler;
 import com.github.markozajc.lithium.listeners.ExceptionListener;
+import com.github.markozajc.lithium.listeners.MessageFilter;
 import com.github.markozajc.lithium.listeners.MessageListener;
+import com.github.markozajc.lithium.metrics.CommandMetricsRegistry;
+import com.github.markozajc.lithium.processes.LithiumProcess;
 import com.github.markozajc.lithium.processes.ProcessManager;
 import com.github.markozajc.lithium.tasks.Task;
 import com.github.markozajc.lithium.tasks.TaskChain;
@@ -39,13 +53,24 @@ public class Lithium {
 
 	static final Logger LOG = LoggerFactory.getLogger(Lithium.class);
 
+	private static final int RESULT_CACHE_SIZE = 1024;
+	private static final Duration SHUTDOWN_HOOK_TIMEOUT = Duration.ofSeconds(30);
+	private static final long CANCELLED_PROCESSES_TIMEOUT = 1000;
+
 	private final BotConfiguration configuration;
 	private PropertyManager propertyManager;
 	private final ProviderManager providerManager;
+	private final PrefixProvider prefixProvider;
+	private final MessageFilter messageFilter;
+	private final CommandMetricsRegistry commandMetrics = new CommandMetricsRegistry();
+	private final ResultCache resultCache = new ResultCache(RESULT_CACHE_SIZE);
 	private final Handlers handlers;
 	private final ProcessManager processManager;
-	private CommandList commands;
+	private volatile CommandList commands;
 	private final EventWaiter eventWaiter;
+	private final JDA jda;
+	private final AtomicBoolean shuttingDown = new AtomicBoolean();
+	private final Thread shutdownHook = new Thread(() -> shutdown(SHUTDOWN_HOOK_TIMEOUT), "lithium-shutdown-hook");
 
 	public Lithium(BotConfiguration configuration, PersistentDataConfiguration dataConfiguration, Handlers handlers,
 			JDABuilder jdaBuilder, List<BootTask> bootTasks, List<Function<Lithium, EventListener>> listeners,
@@ -56,7 +81,12 @@ public class Lithium {
 		this.eventWaiter = new EventWaiter(this);
 
 		LOG.debug("Creating a ProviderManager..");
-		this.providerManager = new ProviderManager(dataConfiguration.getProviders(), this);
+		this.prefixProvider = new PrefixProvider(configuration.getDefaultPrefix(),
+				configuration.getAdditionalPrefixes());
+		List<Provider<?>> providers = new ArrayList<>(dataConfiguration.getProviders());
+		providers.add(this.prefixProvider);
+		this.providerManager = new ProviderManager(providers);
+		this.messageFilter = new MessageFilter(this.prefixProvider);
 
 		LOG.debug("Creating the bootstrap task chain..");
 		List<Task> bootstrapTasks = new ArrayList<>();
@@ -75,11 +105,133 @@ public class Lithium {
 				new Task(() -> this.providerManager.loadAll(this.propertyManager), "load-providers")));
 
 		LOG.debug("Creating and registering event listeners..");
-		jdaBuilder.addEventListener(listeners.stream().map(f -> f.apply(this)).toArray())
+		this.jda = jdaBuilder.addEventListener(listeners.stream().map(f -> f.apply(this)).toArray())
 				.addEventListener(new Bootstrap(this, new TaskChain(bootstrapTasks, "lithium-boot"), bootTasks),
 					new MessageListener(this), new ExceptionListener(this), this.eventWaiter)
 				.build();
 
+		Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+	}
+
+	/**
+	 * Shuts Lithium down gracefully. The shutdown happens in phases, each of which is
+	 * timed and logged:
+	 * <ol>
+	 * <li>commands and other processes stop being admitted,</li>
+	 * <li>queued and running processes are given up to {@code timeout} to finish, after
+	 * which the rest are cancelled and interrupted,</li>
+	 * <li>all {@link Provider}s are stored in parallel,</li>
+	 * <li>the {@link PropertyManager} is closed,</li>
+	 * <li>the {@link ProcessManager} and its executors are shut down,</li>
+	 * <li>and finally JDA is shut down.</li>
+	 * </ol>
+	 * The timeout only bounds draining processes, storing data is never cut short. The
+	 * process calling this (for example a shutdown command) and processes blocked in
+	 * {@link System#exit(int)} are neither waited for nor cancelled, as they can't finish
+	 * before the shutdown does.
+	 * <p>
+	 * This is also run by a shutdown hook with a timeout of 30 seconds; only the first
+	 * call has any effect, and calling this removes the hook.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for processes to finish.
+	 * @return {@code false} if Lithium was already shutting down, {@code true}
+	 *         otherwise.
+	 */
+	public boolean shutdown(@Nonnull Duration timeout) {
+		if (!this.shuttingDown.compareAndSet(false, true))
+			return false;
+
+		if (Thread.currentThread() != this.shutdownHook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+			} catch (IllegalStateException e) {
+				// The JVM is already shutting down, the hook will return right away
+			}
+		}
+
+		LOG.info("Shutting down..");
+		long start = System.nanoTime();
+
+		LithiumProcess<?> caller = LithiumProcess.current();
+		Predicate<LithiumProcess<?>> exempt = p -> p == caller || isExiting(p);
+
+		this.processManager.shutdown();
+		long phase = logPhase("Stopped admitting processes", start);
+
+		boolean interrupted = false;
+		try {
+			if (!this.processManager.awaitProcesses(timeout.toNanos(), TimeUnit.NANOSECONDS, exempt)) {
+				LOG.warn("Cancelling {} processes that didn't finish in time.",
+					this.processManager.cancelAll(true, exempt));
+				if (!this.processManager.awaitProcesses(CANCELLED_PROCESSES_TIMEOUT, TimeUnit.MILLISECONDS, exempt))
+					LOG.warn("{} processes are still running after being cancelled.",
+						this.processManager.getProcesses().stream().filter(exempt.negate()).count());
+			}
+		} catch (InterruptedException e) {
+			LOG.warn("Got interrupted while draining processes, cancelling them.");
+			this.processManager.cancelAll(true, exempt);
+			interrupted = true;
+			// Keeps going without the interrupt flag, so the data still gets stored
+		}
+		phase = logPhase("Drained processes", phase);
+
+		PropertyManager pm = this.propertyManager;
+		if (pm == null) {
+			LOG.warn("The PropertyManager hasn't been created yet, providers won't be stored.");
+		} else {
+			this.providerManager.shutdownAll(pm);
+			phase = logPhase("Stored providers", phase);
+
+			pm.close();
+			phase = logPhase("Closed the PropertyManager", phase);
+		}
+
+		this.processManager.close();
+		phase = logPhase("Shut down the ProcessManager", phase);
+
+		this.jda.shutdown();
+		logPhase("Shut down JDA", phase);
+
+		LOG.info("Shut down in {} ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		return true;
+	}
+
+	private static boolean isExiting(LithiumProcess<?> process) {
+		Thread thread = process.getThread();
+		if (thread == null)
+			return false;
+
+		for (StackTraceElement frame : thread.getStackTrace()) {
+			if ("java.lang.Shutdown".equals(frame.getClassName()))
+				return true;
+		}
+		// System.exit() blocks until the shutdown hooks have finished
+
+		return false;
+	}
+
+	private static long logPhase(String phase, long since) {
+		long now = System.nanoTime();
+		LOG.info("{} in {} ms.", phase, TimeUnit.NANOSECONDS.toMillis(now - since));
+		return now;
+	}
+
+	/**
+	 * @return Whether {@link #shutdown(Duration)} has been called.
+	 */
+	public boolean isShuttingDown() {
+		return this.shuttingDown.get();
+	}
+
+	/**
+	 * @return The {@link JDA} instance Lithium runs on.
+	 */
+	@Nonnull
+	public JDA getJDA() {
+		return this.jda;
 	}
 
 	public static Logger getLog() {
@@ -94,14 +246,85 @@ public class Lithium {
 		return this.providerManager;
 	}
 
+	/**
+	 * @return The built-in {@link PrefixProvider}, holding per-guild prefixes.
+	 */
+	public PrefixProvider getPrefixProvider() {
+		return this.prefixProvider;
+	}
+
+	/**
+	 * @return The {@link MessageFilter} that drops messages before they are parsed.
+	 */
+	public MessageFilter getMessageFilter() {
+		return this.messageFilter;
+	}
+
+	/**
+	 * @return The {@link CommandMetricsRegistry} holding latency histograms and outcome
+	 *         counters of all commands.
+	 */
+	public CommandMetricsRegistry getCommandMetrics() {
+		return this.commandMetrics;
+	}
+
+	/**
+	 * @return The {@link ResultCache} holding rendered results of {@link Cacheable}
+	 *         commands.
+	 */
+	public ResultCache getResultCache() {
+		return this.resultCache;
+	}
+
 	public Handlers getHandlers() {
 		return this.handlers;
 	}
 
+	/**
+	 * @return The current {@link CommandList} or {@code null} if commands haven't been
+	 *         loaded yet. The returned list is immutable; it is replaced as a whole by
+	 *         {@link #swapCommands(CommandListBuilder)}, so callers should retrieve it
+	 *         once and use that reference throughout an operation.
+	 */
+	@Nullable
 	public CommandList getCommands() {
 		return this.commands;
 	}
 
+	/**
+	 * Replaces the commands at runtime, without restarting. The new {@link CommandList}
+	 * is fully built before it is published, so message dispatch sees either the old
+	 * list or the new one and never a partially built one. Commands that are already
+	 * running keep running with the {@link Command} instance they were dispatched with.
+	 * If building fails (for example because of a name collision), the current list is
+	 * kept.
+	 *
+	 * @param builder
+	 *            The {@link CommandListBuilder} to build the new list from.
+	 * @return The {@link CommandList} that was replaced or {@code null} if there was
+	 *         none.
+	 * @throws IllegalArgumentException
+	 *             If two commands share a name, an alias or an ID.
+	 */
+	@Nullable
+	public CommandList swapCommands(@Nonnull CommandListBuilder builder) {
+		CommandList newCommands = builder.build();
+		// Builds (and compiles) outside the lock, it is the expensive part
+
+		CommandList oldCommands;
+		synchronized (this) {
+			oldCommands = this.commands;
+			this.commands = newCommands;
+		}
+		this.resultCache.invalidateAll();
+		// The new commands may render different results under the same IDs
+
+		LOG.info("Swapped the command list, {} commands are now registered (previously {}).",
+			newCommands.getRegisteredCommands().size(),
+			oldCommands == null ? 0 : oldCommands.getRegisteredCommands().size());
+		return oldCommands;
+	}
+
 	public BotConfiguration getConfiguration() {
 		return this.configuration;
 	}
@@ -114,6 +337,34 @@ public class Lithium {
 		return this.eventWaiter;
 	}
 
+	/**
+	 * Cancels all processes run for a user, including their pending
+	 * {@link com.github.markozajc.lithium.utilities.EventWaiter.Waiter}s.
+	 *
+	 * @param userId
+	 *            The user's ID.
+	 * @param mayInterrupt
+	 *            Whether to interrupt processes that are running.
+	 * @return The number of cancelled processes and removed waiters.
+	 */
+	public int cancelByUser(long userId, boolean mayInterrupt) {
+		return this.processManager.cancelByUser(userId, mayInterrupt) + this.eventWaiter.removeWaitersByUser(userId);
+	}
+
+	/**
+	 * Cancels all processes run in a guild, including their pending
+	 * {@link com.github.markozajc.lithium.utilities.EventWaiter.Waiter}s.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @param mayInterrupt
+	 *            Whether to interrupt processes that are running.
+	 * @return The number of cancelled processes and removed waiters.
+	 */
+	public int cancelByGuild(long guildId, boolean mayInterrupt) {
+		return this.processManager.cancelByGuild(guildId, mayInterrupt) + this.eventWaiter.removeWaitersByGuild(guildId);
+	}
+
 	private static class Bootstrap extends ListenerAdapter {
 
 		private final Lithium lithium;
@@ -182,12 +433,33 @@ public class Lithium {
 
 		private final long ownerId;
 		private final String defaultPrefix;
+		private final List<String> additionalPrefixes;
 		private final List<Command> commands;
 		private final String name;
 
 		public BotConfiguration(long ownerId, String defaultPrefix, List<Command> commands, String name) {
+			this(ownerId, defaultPrefix, Collections.emptyList(), commands, name);
+		}
+
+		/**
+		 * Creates a new {@link BotConfiguration}.
+		 *
+		 * @param ownerId
+		 *            The ID of the bot's owner.
+		 * @param defaultPrefix
+		 *            The prefix shown in usages and help messages.
+		 * @param additionalPrefixes
+		 *            Other prefixes that should also be recognized as command calls.
+		 * @param commands
+		 *            The {@link Command}s to register.
+		 * @param name
+		 *            The bot's name.
+		 */
+		public BotConfiguration(long ownerId, String defaultPrefix, List<String> additionalPrefixes,
+				List<Command> commands, String name) {
 			this.ownerId = ownerId;
 			this.defaultPrefix = defaultPrefix;
+			this.additionalPrefixes = Collections.unmodifiableList(new ArrayList<>(additionalPrefixes));
 			this.commands = commands;
 			this.name = name;
 		}
@@ -200,6 +472,10 @@ public class Lithium {
 			return this.defaultPrefix;
 		}
 
+		public List<String> getAdditionalPrefixes() {
+			return this.additionalPrefixes;
+		}
+
 		public List<Command> getCommands() {
 			return this.commands;
 		}
@@ -223,10 +499,45 @@ public class Lithium {
 
 		private final CommandHandler command;
 		private final ExceptionHandler exception;
+		private final UnknownCommandHandler unknownCommand;
+		private final BusyHandler busy;
 
 		public Handlers(CommandHandler command, ExceptionHandler exception) {
+			this(command, exception, null);
+		}
+
+		/**
+		 * @param command
+		 *            The {@link CommandHandler}.
+		 * @param exception
+		 *            The {@link ExceptionHandler}.
+		 * @param unknownCommand
+		 *            The {@link UnknownCommandHandler} or {@code null} to silently ignore
+		 *            unknown commands.
+		 */
+		public Handlers(CommandHandler command, ExceptionHandler exception,
+				@Nullable UnknownCommandHandler unknownCommand) {
+			this(command, exception, unknownCommand, new BusyHandler());
+		}
+
+		/**
+		 * @param command
+		 *            The {@link CommandHandler}.
+		 * @param exception
+		 *            The {@link ExceptionHandler}.
+		 * @param unknownCommand
+		 *            The {@link UnknownCommandHandler} or {@code null} to silently ignore
+		 *            unknown commands.
+		 * @param busy
+		 *            The {@link BusyHandler} or {@code null} to silently drop commands
+		 *            shed under load.
+		 */
+		public Handlers(CommandHandler command, ExceptionHandler exception,
+				@Nullable UnknownCommandHandler unknownCommand, @Nullable BusyHandler busy) {
 			this.command = command;
 			this.exception = exception;
+			this.unknownCommand = unknownCommand;
+			this.busy = busy;
 		}
 
 		public CommandHandler getCommand() {
@@ -237,6 +548,16 @@ public class Lithium {
 			return this.exception;
 		}
 
+		@Nullable
+		public UnknownCommandHandler getUnknownCommand() {
+			return this.unknownCommand;
+		}
+
+		@Nullable
+		public BusyHandler getBusy() {
+			return this.busy;
+		}
+
 	}
 
 }
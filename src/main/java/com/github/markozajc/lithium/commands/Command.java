@@ -11,6 +11,8 @@ import com.github.markozajc.lithium.Lithium;
 import com.github.markozajc.lithium.commands.exceptions.startup.MemberInsufficientPermissionsException;
 import com.github.markozajc.lithium.commands.utils.Commands;
 import com.github.markozajc.lithium.commands.utils.Parameters;
+import com.github.markozajc.lithium.processes.LithiumProcess;
+import com.github.markozajc.lithium.processes.ProcessManager;
 import com.github.markozajc.lithium.processes.context.CommandContext;
 import com.github.markozajc.lithium.utilities.BotUtils;
 
@@ -39,6 +41,16 @@ public abstract class Command {
 
 	}
 
+	/**
+	 * Executes the command with raw parameters. Commands with typed parameters should
+	 * extend {@link TypedCommand} instead.
+	 *
+	 * @param context
+	 *            the command's context
+	 * @param params
+	 *            the raw parameters
+	 * @throws Throwable
+	 */
 	public abstract void execute(CommandContext context, Parameters params) throws Throwable; // NOSONAR
 
 	@Nullable
@@ -54,11 +66,32 @@ public abstract class Command {
 	@Nonnull
 	public abstract CommandCategory getCategory();
 
+	/**
+	 * @return the hash of this command's name
+	 * @deprecated subcommands of different commands may share a name, and with it this
+	 *             ID; use {@link CommandList#getId(Command)}, which is derived from the
+	 *             full name, instead
+	 */
+	@Deprecated
 	@Nonnegative
 	public final int getId() {
 		return getName().hashCode();
 	}
 
+	/**
+	 * Declares this command's subcommands. Each subcommand is a {@link Command} of its
+	 * own, with its own parameters, permissions and ratelimit, and is called when its
+	 * name (or alias) follows this command's name. This is called when a
+	 * {@link CommandList} containing this command is built, which keeps the resulting
+	 * tree to itself (see {@link CommandList#getFullName(Command)}).
+	 *
+	 * @return subcommands of this command
+	 */
+	@Nonnull
+	public Command[] getSubcommands() {
+		return new Command[0];
+	}
+
 	@Nonnull
 	public abstract String getInfo();
 
@@ -84,6 +117,13 @@ public abstract class Command {
 		return DEFAULT_RATELIMIT;
 	}
 
+	/**
+	 * @return the ID of the ratelimit this command shares with other commands. By
+	 *         default this is the command's name, which
+	 *         {@link com.github.markozajc.lithium.commands.ratelimits.RatelimitsManager}
+	 *         extends to its full name (see {@link CommandList#getFullName(Command)}), so
+	 *         subcommands of different commands don't share a ratelimit
+	 */
 	@Nonnull
 	public String getRatelimitId() {
 		return getName();
@@ -94,15 +134,80 @@ public abstract class Command {
 		return BotUtils.unescapeMarkdown(getUsage(lithium));
 	}
 
+	/**
+	 * @param lithium
+	 *            the {@link Lithium} instance
+	 * @param guildId
+	 *            the ID of the guild the usage will be shown in
+	 * @return this command's usage with markdown unescaped, prefixed with the prefix
+	 *         that is effective in the given guild
+	 */
+	@Nonnull
+	public String getUnescapedUsage(Lithium lithium, long guildId) {
+		return BotUtils.unescapeMarkdown(getUsage(lithium, guildId));
+	}
+
+	/**
+	 * @param lithium
+	 *            the {@link Lithium} instance
+	 * @return this command's usage, prefixed with the default prefix. Prefer
+	 *         {@link #getUsage(Lithium, long)} when the usage is shown in a guild, as
+	 *         the guild might have a custom prefix
+	 */
 	@Nonnull
 	public String getUsage(Lithium lithium) {
-		return Commands.buildUsage(this, lithium.getConfiguration().getDefaultPrefix());
+		return Commands.buildUsage(this, lithium.getCommands(), lithium.getConfiguration().getDefaultPrefix());
+	}
+
+	/**
+	 * @param lithium
+	 *            the {@link Lithium} instance
+	 * @param guildId
+	 *            the ID of the guild the usage will be shown in
+	 * @return this command's usage, prefixed with the prefix that is effective in the
+	 *         given guild
+	 */
+	@Nonnull
+	public String getUsage(Lithium lithium, long guildId) {
+		return Commands.buildUsage(this, lithium.getCommands(),
+			lithium.getPrefixProvider().getEffectivePrefix(guildId));
 	}
 
 	public boolean pausesThread() {
 		return false;
 	}
 
+	/**
+	 * @return the name of the {@link com.github.markozajc.lithium.processes.ExecutionLane}
+	 *         this command runs on. Commands that {@link #pausesThread()} run on
+	 *         {@link ProcessManager#LANE_INTERACTIVE} by default, so they can't starve
+	 *         other commands while they wait for users.
+	 */
+	public String getLane() {
+		return pausesThread() ? ProcessManager.LANE_INTERACTIVE : ProcessManager.LANE_DEFAULT;
+	}
+
+	/**
+	 * @return how long this command may run before the
+	 *         {@link com.github.markozajc.lithium.processes.ProcessWatchdog} reports it,
+	 *         in milliseconds, or {@link LithiumProcess#WATCHDOG_DEFAULT} or
+	 *         {@link LithiumProcess#WATCHDOG_DISABLED}. Commands that
+	 *         {@link #pausesThread()} are exempt by default, as they wait for users.
+	 */
+	public long getWatchdogThreshold() {
+		return pausesThread() ? LithiumProcess.WATCHDOG_DISABLED : LithiumProcess.WATCHDOG_DEFAULT;
+	}
+
+	/**
+	 * @return how long this command may wait for a thread and run in total, in
+	 *         milliseconds, or {@link CommandCategory#NO_DEADLINE}. The
+	 *         {@link ProcessManager} cancels commands that run past their deadline.
+	 *         Defaults to the deadline of the command's {@link CommandCategory}.
+	 */
+	public long getDeadline() {
+		return getCategory().getDeadline();
+	}
+
 	@SuppressWarnings("unused")
 	public void startupCheck(CommandContext context, Parameters params) throws Throwable { // NOSONAR
 		checkPermissions(context.getEvent().getMember());
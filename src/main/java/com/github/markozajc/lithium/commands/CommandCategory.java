@@ -1,15 +1,53 @@
 package com.github.markozajc.lithium.commands;
 
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
 public class CommandCategory {
 
+	/**
+	 * The value of {@link #getDeadline()} meaning commands of a category have no
+	 * deadline.
+	 */
+	public static final long NO_DEADLINE = 0;
+
 	private final String name;
+	private final long deadline;
 
 	public CommandCategory(String name) {
+		this(name, NO_DEADLINE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a new {@link CommandCategory} whose commands have a deadline by default.
+	 *
+	 * @param name
+	 *            The category's name.
+	 * @param deadline
+	 *            How long a command of this category may wait for a thread and run in
+	 *            total, or {@link #NO_DEADLINE}.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code deadline}.
+	 */
+	public CommandCategory(String name, long deadline, @Nonnull TimeUnit unit) {
+		if (deadline < 0)
+			throw new IllegalArgumentException("Deadline can't be negative.");
+
 		this.name = name;
+		this.deadline = unit.toMillis(deadline);
 	}
 
 	public String getName() {
 		return this.name;
 	}
 
+	/**
+	 * @return The default deadline of commands in this category in milliseconds, or
+	 *         {@link #NO_DEADLINE}.
+	 */
+	public long getDeadline() {
+		return this.deadline;
+	}
+
 }
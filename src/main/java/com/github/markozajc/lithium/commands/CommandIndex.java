@@ -0,0 +1,112 @@
+package com.github.markozajc.lithium.commands;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable, case-insensitive hash index mapping names and aliases to
+ * {@link Command}s. Keys are case-folded once when the index is built, so lookups
+ * fold the queried characters on the fly and neither allocate nor copy the name.
+ *
+ * @author Marko Zajc
+ */
+final class CommandIndex {
+
+	private final String[] keys;
+	private final Command[] values;
+	private final int mask;
+
+	/**
+	 * Creates a new {@link CommandIndex}.
+	 *
+	 * @param entries
+	 *            A {@link Map} of case-folded keys (see {@link #fold(CharSequence)})
+	 *            and their {@link Command}s.
+	 */
+	CommandIndex(@Nonnull Map<String, Command> entries) {
+		int capacity = Integer.highestOneBit(Math.max(entries.size(), 1) * 2 - 1) << 1;
+		// At most half full, which keeps the probe sequences short
+
+		this.keys = new String[capacity];
+		this.values = new Command[capacity];
+		this.mask = capacity - 1;
+
+		entries.forEach((key, command) -> {
+			int slot = hash(key, 0, key.length()) & this.mask;
+			while (this.keys[slot] != null)
+				slot = (slot + 1) & this.mask;
+
+			this.keys[slot] = key;
+			this.values[slot] = command;
+		});
+	}
+
+	/**
+	 * Looks up a {@link Command} by a region of a {@link CharSequence}, ignoring case.
+	 *
+	 * @param name
+	 *            The {@link CharSequence} containing the name.
+	 * @param start
+	 *            The index of the first character of the name (inclusive).
+	 * @param end
+	 *            The index of the last character of the name (exclusive).
+	 * @return The {@link Command} registered under that name or {@code null} if there
+	 *         is none.
+	 */
+	@Nullable
+	Command get(@Nonnull CharSequence name, int start, int end) {
+		int slot = hash(name, start, end) & this.mask;
+		String key;
+		while ((key = this.keys[slot]) != null) {
+			if (regionEquals(key, name, start, end))
+				return this.values[slot];
+
+			slot = (slot + 1) & this.mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Case-folds a {@link CharSequence} the same way lookups do.
+	 *
+	 * @param name
+	 *            The {@link CharSequence} to fold.
+	 * @return The folded {@link String}.
+	 */
+	@Nonnull
+	static String fold(@Nonnull CharSequence name) {
+		StringBuilder folded = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++)
+			folded.append(fold(name.charAt(i)));
+
+		return folded.toString();
+	}
+
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static int hash(CharSequence name, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++)
+			hash = 31 * hash + fold(name.charAt(i));
+
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean regionEquals(String key, CharSequence name, int start, int end) {
+		if (key.length() != end - start)
+			return false;
+
+		for (int i = 0; i < key.length(); i++) {
+			if (key.charAt(i) != fold(name.charAt(start + i)))
+				return false;
+		}
+
+		return true;
+	}
+
+}
@@ -2,15 +2,29 @@ package com.github.markozajc.lithium.commands;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.github.markozajc.lithium.commands.binding.ParameterBinder;
+import com.github.markozajc.lithium.commands.utils.ParsedInvocation;
+
 public class CommandList implements Iterable<Command> {
 
 	private final List<Command> commands;
+	private final Map<Command, Node> nodes;
+	private final CommandIndex index;
+	private final CommandSuggestions suggestions;
+	private final int[] ids;
+	private final Command[] byId;
+	private final int idMask;
 
 	/**
 	 * You may not use this constructor alone, rather use CommandsBuilder to construct a
@@ -18,6 +32,8 @@ public class CommandList implements Iterable<Command> {
 	 *
 	 * @param builder
 	 *            builder to get registered commands from
+	 * @throws IllegalArgumentException
+	 *             if two commands share a name, an alias or an ID
 	 */
 	public CommandList(CommandListBuilder builder) {
 		List<Command> newCommands = new ArrayList<>(builder.getRegistered());
@@ -25,6 +41,81 @@ public class CommandList implements Iterable<Command> {
 		Collections.sort(newCommands, (Command c1, Command c2) -> c1.getName().compareToIgnoreCase(c2.getName()));
 
 		this.commands = Collections.unmodifiableList(newCommands);
+
+		Map<String, Command> names = new HashMap<>();
+		for (Command command : newCommands)
+			putName(names, command.getName(), command);
+		for (Command command : newCommands) {
+			for (String alias : command.getAliases())
+				putName(names, alias, command);
+		}
+		this.index = new CommandIndex(names);
+		this.suggestions = new CommandSuggestions(names);
+		// Indexes the names before the aliases, so a collision is reported on the alias
+
+		Map<Command, Node> newNodes = new IdentityHashMap<>();
+		for (Command command : newCommands)
+			link(command, null, newNodes);
+		// Builds the subcommand tree in this list only, so commands can be shared by several
+		// lists and a failed build leaves them untouched
+		this.nodes = newNodes;
+
+		int capacity = Integer.highestOneBit(Math.max(newNodes.size(), 1) * 2 - 1) << 1;
+		this.ids = new int[capacity];
+		this.byId = new Command[capacity];
+		this.idMask = capacity - 1;
+		for (Map.Entry<Command, Node> entry : newNodes.entrySet())
+			putId(entry.getKey(), entry.getValue().id);
+	}
+
+	private static void link(Command command, @Nullable Node parent, Map<Command, Node> nodes) {
+		if (nodes.containsKey(command))
+			throw new IllegalArgumentException("Command " + command.getName() + " is registered more than once.");
+		// Also guards against cycles
+
+		Command[] subcommands = command.getSubcommands();
+		CommandIndex subcommandIndex = null;
+		if (subcommands.length != 0) {
+			Map<String, Command> names = new HashMap<>();
+			for (Command subcommand : subcommands)
+				putName(names, subcommand.getName(), subcommand);
+			for (Command subcommand : subcommands) {
+				for (String alias : subcommand.getAliases())
+					putName(names, alias, subcommand);
+			}
+			subcommandIndex = new CommandIndex(names);
+		}
+
+		Node node = new Node(command, parent, subcommandIndex);
+		nodes.put(command, node);
+		for (Command subcommand : subcommands)
+			link(subcommand, node, nodes);
+		// Links the parent first, so subcommands can build their full names from it
+	}
+
+	private static void putName(Map<String, Command> names, String name, Command command) {
+		Command existing = names.putIfAbsent(CommandIndex.fold(name), command);
+		if (existing != null && existing != command)
+			throw new IllegalArgumentException("Command name/alias \"" + name + "\" of " + command.getName()
+					+ " collides with " + existing.getName() + ".");
+	}
+
+	private void putId(Command command, int id) {
+		int slot = mix(id) & this.idMask;
+		while (this.byId[slot] != null) {
+			if (this.ids[slot] == id)
+				throw new IllegalArgumentException(
+						"Command ID of " + command.getName() + " collides with " + this.byId[slot].getName() + ".");
+
+			slot = (slot + 1) & this.idMask;
+		}
+
+		this.ids[slot] = id;
+		this.byId[slot] = command;
+	}
+
+	private static int mix(int id) {
+		return id ^ (id >>> 16);
 	}
 
 	/**
@@ -35,7 +126,7 @@ public class CommandList implements Iterable<Command> {
 	 * @return true if the command exists, false if it doesn't
 	 */
 	public boolean contains(String name) {
-		return get(name) == null;
+		return get(name) != null;
 	}
 
 	/**
@@ -44,29 +135,176 @@ public class CommandList implements Iterable<Command> {
 	 * @return the command with given alias or name, if found, null if a command with
 	 *         such alias/name wasn't found
 	 */
-	public Command get(String name) {
-		return this.commands.stream()
-				.filter(cmd -> cmd.getName().equalsIgnoreCase(name.toLowerCase()))
-				.findAny()
-				.orElse(this.commands.stream().filter(cmd -> {
+	@Nullable
+	public Command get(@Nonnull String name) {
+		return this.index.get(name, 0, name.length());
+	}
+
+	/**
+	 * Looks up a command by a region of a {@link CharSequence} (for example a raw
+	 * message), without copying that region. Names and aliases are matched ignoring
+	 * case.
+	 *
+	 * @param content
+	 *            the {@link CharSequence} containing the name
+	 * @param start
+	 *            index of the name's first character (inclusive)
+	 * @param end
+	 *            index of the name's last character (exclusive)
+	 * @return the command with given alias or name, if found, null if a command with
+	 *         such alias/name wasn't found
+	 */
+	@Nullable
+	public Command get(@Nonnull CharSequence content, int start, int end) {
+		return this.index.get(content, start, end);
+	}
+
+	/**
+	 * @param command
+	 *            a command or a subcommand
+	 * @return the command the given command is a subcommand of in this list or
+	 *         {@code null} if it is a top-level command or isn't in this list
+	 */
+	@Nullable
+	public Command getParent(@Nonnull Command command) {
+		Node node = this.nodes.get(command);
+		return node == null ? null : node.parent;
+	}
+
+	/**
+	 * @param command
+	 *            a command or a subcommand
+	 * @return the number of commands above the given command in this list, {@code 0} for
+	 *         top-level commands and commands that aren't in this list
+	 */
+	@Nonnegative
+	public int getDepth(@Nonnull Command command) {
+		Node node = this.nodes.get(command);
+		return node == null ? 0 : node.depth;
+	}
+
+	/**
+	 * @param command
+	 *            a command or a subcommand
+	 * @return the space-separated names of the given command and all commands above it
+	 *         in this list, for example {@code config set prefix}, or just its name if it
+	 *         isn't in this list
+	 */
+	@Nonnull
+	public String getFullName(@Nonnull Command command) {
+		Node node = this.nodes.get(command);
+		return node == null ? command.getName() : node.fullName;
+	}
+
+	/**
+	 * @param command
+	 *            a command or a subcommand
+	 * @return the ID of the given command, derived from its full name (see
+	 *         {@link #getFullName(Command)}), so it stays the same across lists
+	 */
+	public int getId(@Nonnull Command command) {
+		Node node = this.nodes.get(command);
+		return node == null ? command.getName().hashCode() : node.id;
+	}
+
+	/**
+	 * @param command
+	 *            a command or a subcommand
+	 * @return the {@link ParameterBinder} compiled for the given command by this list or
+	 *         {@code null} if it isn't a {@link TypedCommand} or isn't in this list
+	 */
+	@Nullable
+	public ParameterBinder getParameterBinder(@Nonnull Command command) {
+		Node node = this.nodes.get(command);
+		return node == null ? null : node.binder;
+	}
+
+	/**
+	 * Looks up a direct subcommand of a command by a region of a {@link CharSequence},
+	 * ignoring case.
+	 *
+	 * @param command
+	 *            the parent command
+	 * @param content
+	 *            the {@link CharSequence} containing the name
+	 * @param start
+	 *            index of the name's first character (inclusive)
+	 * @param end
+	 *            index of the name's last character (exclusive)
+	 * @return the subcommand with given alias or name or {@code null} if there is none
+	 */
+	@Nullable
+	public Command getSubcommand(@Nonnull Command command, @Nonnull CharSequence content, int start, int end) {
+		Node node = this.nodes.get(command);
+		return node == null || node.subcommands == null ? null : node.subcommands.get(content, start, end);
+	}
+
+	/**
+	 * Suggests commands for a name that didn't match any, ignoring case.
+	 *
+	 * @param name
+	 *            the mistyped name
+	 * @param maxDistance
+	 *            the maximum edit distance between {@code name} and a command's name or
+	 *            alias
+	 * @param limit
+	 *            the maximum number of suggestions
+	 * @return the suggested commands, closest first
+	 */
+	@Nonnull
+	public List<Command> suggest(@Nonnull String name, @Nonnegative int maxDistance, @Nonnegative int limit) {
+		return this.suggestions.suggest(CommandIndex.fold(name), maxDistance, limit);
+	}
+
+	/**
+	 * Resolves the deepest subcommand of a command that the invocation addresses, by
+	 * matching the tokens following the command's name against each level of
+	 * subcommands in turn.
+	 *
+	 * @param command
+	 *            the top-level command, as returned by
+	 *            {@link #get(CharSequence, int, int)}
+	 * @param invocation
+	 *            the parsed invocation
+	 * @return the deepest matching subcommand or {@code command} itself if the
+	 *         invocation doesn't address any of its subcommands. Use
+	 *         {@link #getDepth(Command)} to find out how many tokens were consumed.
+	 */
+	@Nonnull
+	public Command resolve(@Nonnull Command command, @Nonnull ParsedInvocation invocation) {
+		String content = invocation.getContent();
+		Command resolved = command;
+		for (int i = 0; i < invocation.getTokenCount(); i++) {
+			Command subcommand = getSubcommand(resolved, content, invocation.getTokenStart(i),
+				invocation.getTokenEnd(i));
+			if (subcommand == null)
+				break;
 
-					String[] aliases = cmd.getAliases();
-					for (String alias : aliases)
-						if (alias.equalsIgnoreCase(name))
-							return true;
+			resolved = subcommand;
+		}
 
-					return false;
-				}).findAny().orElse(null));
+		return resolved;
 	}
 
 	/**
+	 * Looks up a command or a subcommand by its ID.
+	 *
 	 * @param id
 	 * @return the command with given id, if found, null if a command with such ID wasn't
 	 *         found
 	 */
 	@Nullable
 	public Command getById(int id) {
-		return this.commands.stream().filter(c -> c.getId() == id).findAny().orElse(null);
+		int slot = mix(id) & this.idMask;
+		Command command;
+		while ((command = this.byId[slot]) != null) {
+			if (this.ids[slot] == id)
+				return command;
+
+			slot = (slot + 1) & this.idMask;
+		}
+
+		return null;
 	}
 
 	/**
@@ -94,4 +332,30 @@ public class CommandList implements Iterable<Command> {
 		return this.commands.iterator();
 	}
 
+	private static final class Node {
+
+		final Command command;
+		@Nullable
+		final Command parent;
+		final int depth;
+		final String fullName;
+		final int id;
+		@Nullable
+		final CommandIndex subcommands;
+		@Nullable
+		final ParameterBinder binder;
+
+		Node(Command command, @Nullable Node parent, @Nullable CommandIndex subcommands) {
+			this.command = command;
+			this.parent = parent == null ? null : parent.command;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+			this.fullName = parent == null ? command.getName() : parent.fullName + " " + command.getName();
+			this.id = this.fullName.hashCode();
+			this.subcommands = subcommands;
+			this.binder = command instanceof TypedCommand ? ((TypedCommand) command).createParameterBinder() : null;
+			// Compiles typed parameters once per list, so calls don't have to
+		}
+
+	}
+
 }
\ No newline at end of file
@@ -69,9 +69,12 @@ public class CommandListBuilder {
 	}
 
 	/**
-	 * Creates a new CommandList for ease of access.
+	 * Creates a new CommandList for ease of access. Names, aliases and IDs of all
+	 * registered commands are indexed at this point.
 	 *
 	 * @return Commands
+	 * @throws IllegalArgumentException
+	 *             if two commands share a name, an alias or an ID
 	 */
 	public CommandList build() {
 		return new CommandList(this);
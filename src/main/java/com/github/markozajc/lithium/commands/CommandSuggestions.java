@@ -0,0 +1,161 @@
+package com.github.markozajc.lithium.commands;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * An immutable BK-tree of case-folded names and aliases, used to find
+ * {@link Command}s whose names are within a small edit distance of a mistyped one.
+ * Only subtrees that can contain a match (by the triangle inequality) are visited,
+ * so a query with a small distance touches a small fraction of the names.
+ * <p>
+ * The metric is the Levenshtein distance, which (unlike the restricted
+ * Damerau-Levenshtein distance) is a true metric and so never causes a match to be
+ * pruned. A transposition therefore counts as two edits.
+ *
+ * @author Marko Zajc
+ */
+final class CommandSuggestions {
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private static final int[] NO_DISTANCES = new int[0];
+
+	private Node root;
+
+	/**
+	 * Creates a new {@link CommandSuggestions}.
+	 *
+	 * @param entries
+	 *            A {@link Map} of case-folded names and aliases (see
+	 *            {@link CommandIndex#fold(CharSequence)}) and their {@link Command}s.
+	 */
+	CommandSuggestions(@Nonnull Map<String, Command> entries) {
+		entries.forEach(this::insert);
+	}
+
+	private void insert(String key, Command command) {
+		if (this.root == null) {
+			this.root = new Node(key, command);
+			return;
+		}
+
+		Node node = this.root;
+		while (true) {
+			int distance = distance(key, node.key, new int[node.key.length() + 1], new int[node.key.length() + 1]);
+			Node child = node.getChild(distance);
+			if (child == null) {
+				node.addChild(distance, new Node(key, command));
+				return;
+			}
+
+			node = child;
+		}
+	}
+
+	/**
+	 * Finds {@link Command}s whose name or alias is within an edit distance of the
+	 * query.
+	 *
+	 * @param query
+	 *            The case-folded name to find suggestions for.
+	 * @param maxDistance
+	 *            The maximum edit distance.
+	 * @param limit
+	 *            The maximum number of suggestions.
+	 * @return The suggestions, closest first. A {@link Command} is suggested at most
+	 *         once, even if several of its aliases match.
+	 */
+	@Nonnull
+	List<Command> suggest(@Nonnull String query, @Nonnegative int maxDistance, @Nonnegative int limit) {
+		if (this.root == null || limit == 0)
+			return new ArrayList<>(0);
+
+		Map<Command, Integer> matches = new HashMap<>();
+		Deque<Node> pending = new ArrayDeque<>();
+		pending.push(this.root);
+		int[] previousRow = new int[query.length() + 1];
+		int[] currentRow = new int[query.length() + 1];
+		while (!pending.isEmpty()) {
+			Node node = pending.pop();
+			int distance = distance(node.key, query, previousRow, currentRow);
+			if (distance <= maxDistance)
+				matches.merge(node.command, distance, Math::min);
+
+			for (int i = 0; i < node.distances.length; i++) {
+				if (Math.abs(node.distances[i] - distance) <= maxDistance)
+					pending.push(node.children[i]);
+			}
+			// Skips subtrees that can't contain a match
+		}
+
+		return matches.entrySet()
+				.stream()
+				.sorted(Map.Entry.<Command, Integer>comparingByValue()
+						.thenComparing(e -> e.getKey().getName()))
+				.limit(limit)
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+	}
+
+	private static int distance(String a, String b, int[] previousRow, int[] currentRow) {
+		int[] previous = previousRow;
+		int[] current = currentRow;
+		for (int j = 0; j <= b.length(); j++)
+			previous[j] = j;
+
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			char c = a.charAt(i - 1);
+			for (int j = 1; j <= b.length(); j++) {
+				int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+				current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+			}
+
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+
+		return previous[b.length()];
+	}
+
+	private static final class Node {
+
+		final String key;
+		final Command command;
+		int[] distances = NO_DISTANCES;
+		Node[] children = NO_CHILDREN;
+
+		Node(String key, Command command) {
+			this.key = key;
+			this.command = command;
+		}
+
+		Node getChild(int distance) {
+			for (int i = 0; i < this.distances.length; i++) {
+				if (this.distances[i] == distance)
+					return this.children[i];
+			}
+
+			return null;
+		}
+
+		void addChild(int distance, Node child) {
+			this.distances = Arrays.copyOf(this.distances, this.distances.length + 1);
+			this.children = Arrays.copyOf(this.children, this.children.length + 1);
+			this.distances[this.distances.length - 1] = distance;
+			this.children[this.children.length - 1] = child;
+		}
+
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.github.markozajc.lithium.commands;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.Constants;
+import com.github.markozajc.lithium.commands.binding.BindingResult;
+import com.github.markozajc.lithium.commands.binding.BoundParameters;
+import com.github.markozajc.lithium.commands.binding.ParameterBinder;
+import com.github.markozajc.lithium.commands.binding.ParameterBinderBuilder;
+import com.github.markozajc.lithium.commands.utils.Parameters;
+import com.github.markozajc.lithium.processes.context.CommandContext;
+import com.github.markozajc.lithium.utilities.BotUtils;
+
+/**
+ * A {@link Command} with typed parameters. Its {@link ParameterBinder} is compiled
+ * once by each {@link CommandList} containing it (see
+ * {@link CommandList#getParameterBinder(Command)}) and its parameters are converted
+ * before {@link #execute(CommandContext, BoundParameters)} is called.
+ *
+ * @author Marko Zajc
+ */
+public abstract class TypedCommand extends Command {
+
+	/**
+	 * Declares this command's typed parameters. This is called when a
+	 * {@link CommandList} containing this command is built.
+	 *
+	 * @return a {@link ParameterBinder} (see {@link ParameterBinderBuilder})
+	 */
+	@Nonnull
+	protected abstract ParameterBinder createParameterBinder();
+
+	/**
+	 * Executes the command with typed parameters.
+	 *
+	 * @param context
+	 *            the command's context
+	 * @param params
+	 *            the already converted parameters
+	 * @throws Throwable
+	 */
+	public abstract void execute(CommandContext context, BoundParameters params) throws Throwable; // NOSONAR
+
+	/**
+	 * Binds the typed parameters from the context's invocation and delegates to
+	 * {@link #execute(CommandContext, BoundParameters)}, or calls
+	 * {@link #onBindingFailure(CommandContext, BindingResult)} if they could not be
+	 * bound.
+	 */
+	@Override
+	public final void execute(CommandContext context, Parameters params) throws Throwable { // NOSONAR
+		ParameterBinder binder = context.getCommands().getParameterBinder(this);
+		if (binder == null)
+			throw new IllegalStateException("Command " + getName() + " is not in the context's CommandList.");
+
+		BindingResult result = binder.bind(context, context.getInvocation());
+		BoundParameters bound = result.getParameters();
+		if (bound == null)
+			onBindingFailure(context, result);
+		else
+			execute(context, bound);
+	}
+
+	/**
+	 * Called when typed parameters could not be bound. By default this replies with the
+	 * reason and the correct usage.
+	 *
+	 * @param context
+	 *            the command's context
+	 * @param result
+	 *            the failed {@link BindingResult}
+	 */
+	public void onBindingFailure(CommandContext context, BindingResult result) {
+		if (!context.getChannel().canTalk())
+			return;
+
+		String usage = getUnescapedUsage(context.getLithium(), context.getGuildId());
+		context.getChannel()
+				.sendMessage(BotUtils.buildEmbed("// USAGE INCORRECT //",
+					result.describe() + "\nCorrect usage: `" + usage + "`.",
+					Constants.YELLOW))
+				.queue();
+	}
+
+}
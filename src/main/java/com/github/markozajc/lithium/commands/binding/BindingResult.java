@@ -0,0 +1,128 @@
+package com.github.markozajc.lithium.commands.binding;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The result of {@link ParameterBinder#bind(com.github.markozajc.lithium.processes.context.CommandContext,
+ * com.github.markozajc.lithium.commands.utils.ParsedInvocation)}. Either holds the
+ * {@link BoundParameters} or describes why binding failed.
+ *
+ * @author Marko Zajc
+ */
+public class BindingResult {
+
+	/**
+	 * The reason binding has failed.
+	 *
+	 * @author Marko Zajc
+	 */
+	public enum Failure {
+		/**
+		 * A required parameter was not provided.
+		 */
+		MISSING,
+		/**
+		 * A parameter could not be converted to its type.
+		 */
+		INVALID,
+		/**
+		 * More parameters were provided than declared.
+		 */
+		TOO_MANY
+	}
+
+	@Nullable
+	private final BoundParameters parameters;
+	@Nullable
+	private final Failure failure;
+	private final int index;
+	@Nullable
+	private final String name;
+	@Nullable
+	private final ParameterType type;
+	@Nullable
+	private final String value;
+
+	private BindingResult(BoundParameters parameters, Failure failure, int index, String name, ParameterType type,
+			String value) {
+		this.parameters = parameters;
+		this.failure = failure;
+		this.index = index;
+		this.name = name;
+		this.type = type;
+		this.value = value;
+	}
+
+	static BindingResult success(@Nonnull BoundParameters parameters) {
+		return new BindingResult(parameters, null, -1, null, null, null);
+	}
+
+	static BindingResult failure(@Nonnull Failure failure, int index, @Nullable String name,
+			@Nullable ParameterType type, @Nullable String value) {
+		return new BindingResult(null, failure, index, name, type, value);
+	}
+
+	/**
+	 * @return Whether all parameters were bound.
+	 */
+	public boolean isSuccessful() {
+		return this.failure == null;
+	}
+
+	/**
+	 * @return The {@link BoundParameters} or {@code null} if binding has failed.
+	 */
+	@Nullable
+	public BoundParameters getParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * @return The reason binding has failed or {@code null} if it hasn't.
+	 */
+	@Nullable
+	public Failure getFailure() {
+		return this.failure;
+	}
+
+	/**
+	 * @return The index of the offending parameter or {@code -1} if binding hasn't
+	 *         failed.
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * @return The declared name of the offending parameter or {@code null} if binding
+	 *         hasn't failed or there were too many parameters.
+	 */
+	@Nullable
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return A human-readable description of the failure or {@code null} if binding
+	 *         hasn't failed.
+	 */
+	@Nullable
+	public String describe() {
+		if (this.failure == null)
+			return null;
+
+		switch (this.failure) {
+			case MISSING:
+				return "You haven't provided the `" + this.name + "` parameter!";
+			case INVALID:
+				return "`" + this.value + "` is not a valid " + (this.type == null ? "value" : this.type.getName())
+						+ " for the `" + this.name + "` parameter!";
+			case TOO_MANY:
+				return "You've provided too many parameters!";
+			default:
+				return null;
+		}
+	}
+
+}
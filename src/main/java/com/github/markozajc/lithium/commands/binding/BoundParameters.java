@@ -0,0 +1,167 @@
+package com.github.markozajc.lithium.commands.binding;
+
+import java.time.Duration;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.markozajc.lithium.commands.utils.Parameters;
+
+import net.dv8tion.jda.core.entities.Role;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+
+/**
+ * Parameters that have already been converted by a {@link ParameterBinder}. Numbers
+ * are stored as primitives, everything else as objects.
+ *
+ * @author Marko Zajc
+ */
+public class BoundParameters {
+
+	@Nonnull
+	private final Parameters raw;
+	private final long[] numbers;
+	private final Object[] objects;
+	private final boolean[] present;
+
+	BoundParameters(@Nonnull Parameters raw, int size) {
+		this.raw = raw;
+		this.numbers = new long[size];
+		this.objects = new Object[size];
+		this.present = new boolean[size];
+	}
+
+	/**
+	 * Stores a numeric value. Meant to be used by {@link ParameterType}
+	 * implementations.
+	 *
+	 * @param index
+	 *            The index of the parameter.
+	 * @param value
+	 *            The value.
+	 */
+	public void setNumber(int index, long value) {
+		this.numbers[index] = value;
+		this.present[index] = true;
+	}
+
+	/**
+	 * Stores a value. Meant to be used by {@link ParameterType} implementations.
+	 *
+	 * @param index
+	 *            The index of the parameter.
+	 * @param value
+	 *            The value.
+	 */
+	public void set(int index, @Nonnull Object value) {
+		this.objects[index] = value;
+		this.present[index] = true;
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return Whether an (optional) parameter was provided.
+	 */
+	public boolean isPresent(@Nonnegative int index) {
+		return this.present[index];
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as an {@code int}.
+	 */
+	public int getInt(@Nonnegative int index) {
+		return (int) this.numbers[index];
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as a {@code long} (this also applies to snowflakes).
+	 */
+	public long getLong(@Nonnegative int index) {
+		return this.numbers[index];
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter (converted to its object type) or {@code null} if an
+	 *         optional parameter was not provided.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T get(@Nonnegative int index) {
+		return (T) this.objects[index];
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as a {@link String}.
+	 */
+	@Nullable
+	public String getText(@Nonnegative int index) {
+		return get(index);
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as a {@link User}.
+	 */
+	@Nullable
+	public User getUser(@Nonnegative int index) {
+		return get(index);
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as a {@link Role}.
+	 */
+	@Nullable
+	public Role getRole(@Nonnegative int index) {
+		return get(index);
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as a {@link TextChannel}.
+	 */
+	@Nullable
+	public TextChannel getChannel(@Nonnegative int index) {
+		return get(index);
+	}
+
+	/**
+	 * @param index
+	 *            The index of the parameter.
+	 * @return The parameter as a {@link Duration}.
+	 */
+	@Nullable
+	public Duration getDuration(@Nonnegative int index) {
+		return get(index);
+	}
+
+	/**
+	 * @return The number of declared parameters.
+	 */
+	public int size() {
+		return this.present.length;
+	}
+
+	/**
+	 * @return The unconverted {@link Parameters} these were bound from.
+	 */
+	@Nonnull
+	public Parameters getRaw() {
+		return this.raw;
+	}
+
+}
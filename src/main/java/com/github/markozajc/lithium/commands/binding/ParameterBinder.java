@@ -0,0 +1,98 @@
+package com.github.markozajc.lithium.commands.binding;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.commands.TypedCommand;
+import com.github.markozajc.lithium.commands.binding.BindingResult.Failure;
+import com.github.markozajc.lithium.commands.utils.Parameters;
+import com.github.markozajc.lithium.commands.utils.ParsedInvocation;
+import com.github.markozajc.lithium.processes.context.CommandContext;
+
+/**
+ * An immutable list of typed parameters a {@link TypedCommand} accepts. It is created
+ * by {@link ParameterBinderBuilder} and compiled once, when the command's
+ * {@link com.github.markozajc.lithium.commands.CommandList} is built. Binding a call
+ * walks the already tokenized {@link ParsedInvocation} and converts each token in
+ * place; no reflection and no lookups are done.
+ *
+ * @author Marko Zajc
+ */
+public class ParameterBinder {
+
+	@Nonnull
+	private final String[] names;
+	@Nonnull
+	private final ParameterType[] types;
+	private final int required;
+	private final boolean greedy;
+
+	ParameterBinder(@Nonnull String[] names, @Nonnull ParameterType[] types, int required) {
+		this.names = names;
+		this.types = types;
+		this.required = required;
+		this.greedy = types.length > 0 && types[types.length - 1].isGreedy();
+	}
+
+	/**
+	 * Binds a command call. This never throws on invalid input; failures are returned
+	 * as a {@link BindingResult}.
+	 *
+	 * @param context
+	 *            The {@link CommandContext} of the call.
+	 * @param invocation
+	 *            The parsed command call.
+	 * @return The {@link BindingResult}.
+	 */
+	@Nonnull
+	public BindingResult bind(@Nonnull CommandContext context, @Nonnull ParsedInvocation invocation) {
+		int declared = this.types.length;
+		Parameters raw = invocation.toParameters(this.greedy ? declared : declared + 1);
+		// Asks for one more than declared to detect surplus parameters, unless the last one
+		// consumes them anyway
+
+		if (raw.size() > declared)
+			return BindingResult.failure(Failure.TOO_MANY, declared, null, null, null);
+
+		String content = invocation.getContent();
+		BoundParameters bound = new BoundParameters(raw, declared);
+		for (int i = 0; i < declared; i++) {
+			if (i >= raw.size()) {
+				if (i < this.required)
+					return BindingResult.failure(Failure.MISSING, i, this.names[i], this.types[i], null);
+
+				break;
+			}
+
+			int start = raw.getStart(i);
+			int end = raw.getEnd(i);
+			if (!this.types[i].bind(context, content, start, end, bound, i))
+				return BindingResult.failure(Failure.INVALID, i, this.names[i], this.types[i],
+					content.substring(start, end));
+		}
+
+		return BindingResult.success(bound);
+	}
+
+	/**
+	 * @return The names of the declared parameters, as shown in the command's usage.
+	 */
+	@Nonnull
+	public String[] getNames() {
+		return this.names.clone();
+	}
+
+	/**
+	 * @return The number of parameters that are required.
+	 */
+	public int getRequired() {
+		return this.required;
+	}
+
+	/**
+	 * @return The number of declared parameters.
+	 */
+	public int size() {
+		return this.types.length;
+	}
+
+}
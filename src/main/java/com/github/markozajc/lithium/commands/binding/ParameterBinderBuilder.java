@@ -0,0 +1,75 @@
+package com.github.markozajc.lithium.commands.binding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Builds a {@link ParameterBinder}. Parameters are bound in the order they are added
+ * in.
+ *
+ * @author Marko Zajc
+ */
+public class ParameterBinderBuilder {
+
+	private final List<String> names = new ArrayList<>();
+	private final List<ParameterType> types = new ArrayList<>();
+	private int required = 0;
+
+	/**
+	 * Adds a required parameter.
+	 *
+	 * @param name
+	 *            The parameter's name, shown in the command's usage.
+	 * @param type
+	 *            The parameter's type.
+	 * @return self, used for chaining
+	 * @throws IllegalArgumentException
+	 *             If an optional parameter has already been added.
+	 */
+	@Nonnull
+	public ParameterBinderBuilder add(@Nonnull String name, @Nonnull ParameterType type) {
+		if (this.required != this.types.size())
+			throw new IllegalArgumentException(
+					"Required parameter \"" + name + "\" can't follow optional parameters.");
+
+		append(name, type);
+		this.required++;
+		return this;
+	}
+
+	/**
+	 * Adds an optional parameter. Use {@link BoundParameters#isPresent(int)} to check
+	 * whether it was provided.
+	 *
+	 * @param name
+	 *            The parameter's name, shown in the command's usage.
+	 * @param type
+	 *            The parameter's type.
+	 * @return self, used for chaining
+	 */
+	@Nonnull
+	public ParameterBinderBuilder addOptional(@Nonnull String name, @Nonnull ParameterType type) {
+		append(name, type);
+		return this;
+	}
+
+	private void append(String name, ParameterType type) {
+		if (!this.types.isEmpty() && this.types.get(this.types.size() - 1).isGreedy())
+			throw new IllegalArgumentException("Parameter \"" + name + "\" can't follow a greedy parameter.");
+
+		this.names.add(name);
+		this.types.add(type);
+	}
+
+	/**
+	 * @return A new {@link ParameterBinder}.
+	 */
+	@Nonnull
+	public ParameterBinder build() {
+		return new ParameterBinder(this.names.toArray(new String[this.names.size()]),
+				this.types.toArray(new ParameterType[this.types.size()]), this.required);
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.github.markozajc.lithium.commands.binding;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.processes.context.CommandContext;
+
+/**
+ * A type of a typed parameter, used by a {@link ParameterBinder} to convert a token
+ * of the command call into a value. Common types can be found in
+ * {@link ParameterTypes}.
+ *
+ * @author Marko Zajc
+ */
+public interface ParameterType {
+
+	/**
+	 * Converts a region of the command call and stores the result into
+	 * {@code target}. This must not throw on invalid input, it should return
+	 * {@code false} instead.
+	 *
+	 * @param context
+	 *            The {@link CommandContext} of the call.
+	 * @param content
+	 *            The raw content of the message.
+	 * @param start
+	 *            The index of the parameter's first character (inclusive).
+	 * @param end
+	 *            The index of the parameter's last character (exclusive).
+	 * @param target
+	 *            The {@link BoundParameters} to store the value into.
+	 * @param index
+	 *            The index to store the value at.
+	 * @return Whether the region was valid and the value was stored.
+	 */
+	public boolean bind(@Nonnull CommandContext context, @Nonnull String content, int start, int end,
+			@Nonnull BoundParameters target, int index);
+
+	/**
+	 * @return The human-readable name of this type (for example "number"), used when
+	 *         reporting invalid parameters.
+	 */
+	@Nonnull
+	public String getName();
+
+	/**
+	 * @return Whether this type consumes the rest of the command call. Greedy
+	 *         parameters can only be declared last.
+	 */
+	public default boolean isGreedy() {
+		return false;
+	}
+
+}
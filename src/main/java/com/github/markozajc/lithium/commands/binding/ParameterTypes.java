@@ -0,0 +1,317 @@
+package com.github.markozajc.lithium.commands.binding;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.processes.context.CommandContext;
+
+import net.dv8tion.jda.core.entities.Role;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.entities.User;
+
+/**
+ * Commonly used {@link ParameterType}s. All of them convert the parameter straight
+ * from the message's content, without creating intermediate {@link String}s.
+ *
+ * @author Marko Zajc
+ */
+public class ParameterTypes {
+
+	/**
+	 * A signed 32-bit integer, read with {@link BoundParameters#getInt(int)}.
+	 */
+	public static final ParameterType INTEGER = new BasicType("whole number", false,
+			(context, content, start, end, target, index) -> bindNumber(content, start, end, Integer.MIN_VALUE,
+				Integer.MAX_VALUE, target, index));
+
+	/**
+	 * A signed 64-bit integer, read with {@link BoundParameters#getLong(int)}.
+	 */
+	public static final ParameterType LONG = new BasicType("whole number", false,
+			(context, content, start, end, target, index) -> bindNumber(content, start, end, Long.MIN_VALUE,
+				Long.MAX_VALUE, target, index));
+
+	/**
+	 * A snowflake ID, read with {@link BoundParameters#getLong(int)}.
+	 */
+	public static final ParameterType SNOWFLAKE = new BasicType("ID", false,
+			(context, content, start, end, target, index) -> {
+				long id = parseSnowflake(content, start, end);
+				if (id < 0)
+					return false;
+
+				target.setNumber(index, id);
+				return true;
+			});
+
+	/**
+	 * A {@link User}, given either as a mention or as an ID, read with
+	 * {@link BoundParameters#getUser(int)}.
+	 */
+	public static final ParameterType USER = new BasicType("user", false,
+			(context, content, start, end, target, index) -> {
+				long id = parseMention(content, start, end, "<@!", "<@");
+				if (id < 0)
+					return false;
+
+				User user = context.getJDA().getUserById(id);
+				if (user == null)
+					return false;
+
+				target.set(index, user);
+				return true;
+			});
+
+	/**
+	 * A {@link Role} of the guild, given either as a mention or as an ID, read with
+	 * {@link BoundParameters#getRole(int)}.
+	 */
+	public static final ParameterType ROLE = new BasicType("role", false,
+			(context, content, start, end, target, index) -> {
+				long id = parseMention(content, start, end, "<@&", null);
+				if (id < 0)
+					return false;
+
+				Role role = context.getEvent().getGuild().getRoleById(id);
+				if (role == null)
+					return false;
+
+				target.set(index, role);
+				return true;
+			});
+
+	/**
+	 * A {@link TextChannel} of the guild, given either as a mention or as an ID, read
+	 * with {@link BoundParameters#getChannel(int)}.
+	 */
+	public static final ParameterType CHANNEL = new BasicType("text channel", false,
+			(context, content, start, end, target, index) -> {
+				long id = parseMention(content, start, end, "<#", null);
+				if (id < 0)
+					return false;
+
+				TextChannel channel = context.getEvent().getGuild().getTextChannelById(id);
+				if (channel == null)
+					return false;
+
+				target.set(index, channel);
+				return true;
+			});
+
+	/**
+	 * A {@link Duration} such as {@code 1h30m} (units {@code s}, {@code m}, {@code h},
+	 * {@code d} and {@code w}) or a plain number of seconds, read with
+	 * {@link BoundParameters#getDuration(int)}.
+	 */
+	public static final ParameterType DURATION = new BasicType("duration", false,
+			(context, content, start, end, target, index) -> {
+				long seconds = parseDuration(content, start, end);
+				if (seconds < 0)
+					return false;
+
+				target.set(index, Duration.ofSeconds(seconds));
+				return true;
+			});
+
+	/**
+	 * A single word, read with {@link BoundParameters#getText(int)}.
+	 */
+	public static final ParameterType WORD = new BasicType("word", false,
+			(context, content, start, end, target, index) -> {
+				target.set(index, content.substring(start, end));
+				return true;
+			});
+
+	/**
+	 * The rest of the command call, read with {@link BoundParameters#getText(int)}. This
+	 * can only be the last parameter.
+	 */
+	public static final ParameterType TEXT = new BasicType("text", true,
+			(context, content, start, end, target, index) -> {
+				target.set(index, content.substring(start, end));
+				return true;
+			});
+
+	private ParameterTypes() {}
+
+	/**
+	 * Creates a {@link ParameterType} matching the constants of an enum by their names,
+	 * ignoring case. The value is read with {@link BoundParameters#get(int)}.
+	 *
+	 * @param type
+	 *            The enum's class.
+	 * @return The {@link ParameterType}.
+	 */
+	@Nonnull
+	public static <E extends Enum<E>> ParameterType enumeration(@Nonnull Class<E> type) {
+		E[] constants = type.getEnumConstants();
+		String name = Arrays.stream(constants)
+				.map(e -> e.name().toLowerCase())
+				.collect(Collectors.joining(", ", "choice (one of ", ")"));
+
+		return new BasicType(name, false, (context, content, start, end, target, index) -> {
+			for (E constant : constants) {
+				String constantName = constant.name();
+				if (constantName.length() == end - start
+						&& content.regionMatches(true, start, constantName, 0, constantName.length())) {
+					target.set(index, constant);
+					return true;
+				}
+			}
+
+			return false;
+		});
+	}
+
+	private static boolean bindNumber(String content, int start, int end, long min, long max,
+			BoundParameters target, int index) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (content.charAt(i) == '-' || content.charAt(i) == '+')) {
+			negative = content.charAt(i) == '-';
+			i++;
+		}
+
+		if (i == end)
+			return false;
+
+		long value = 0;
+		long limit = negative ? min : -max;
+		long multiplyLimit = limit / 10;
+		for (; i < end; i++) {
+			int digit = Character.digit(content.charAt(i), 10);
+			if (digit < 0 || value < multiplyLimit)
+				return false;
+
+			value *= 10;
+			if (value < limit + digit)
+				return false;
+
+			value -= digit;
+		}
+		// Accumulates negatively, the same way Long.parseLong does, so MIN_VALUE fits
+
+		target.setNumber(index, negative ? value : -value);
+		return true;
+	}
+
+	private static long parseSnowflake(String content, int start, int end) {
+		if (start == end || end - start > 19)
+			return -1;
+
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			char c = content.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+
+			value = value * 10 + (c - '0');
+			if (value < 0)
+				return -1;
+		}
+
+		return value;
+	}
+
+	private static long parseMention(String content, int start, int end, String prefix, String alternativePrefix) {
+		if (end - start > 2 && content.charAt(end - 1) == '>') {
+			if (content.startsWith(prefix, start))
+				return parseSnowflake(content, start + prefix.length(), end - 1);
+
+			if (alternativePrefix != null && content.startsWith(alternativePrefix, start))
+				return parseSnowflake(content, start + alternativePrefix.length(), end - 1);
+
+			return -1;
+		}
+
+		return parseSnowflake(content, start, end);
+	}
+
+	private static long parseDuration(String content, int start, int end) {
+		long seconds = 0;
+		long amount = -1;
+		try {
+			for (int i = start; i < end; i++) {
+				char c = content.charAt(i);
+				if (c >= '0' && c <= '9') {
+					amount = Math.addExact(Math.multiplyExact(Math.max(amount, 0), 10), c - '0');
+					continue;
+				}
+
+				if (amount < 0)
+					return -1;
+
+				seconds = Math.addExact(seconds, Math.multiplyExact(amount, getUnitSeconds(c)));
+				amount = -1;
+			}
+
+			if (amount >= 0)
+				seconds = Math.addExact(seconds, amount);
+			// A trailing number without a unit is in seconds
+
+		} catch (ArithmeticException | IllegalArgumentException e) {
+			return -1;
+		}
+
+		return start == end ? -1 : seconds;
+	}
+
+	private static long getUnitSeconds(char unit) {
+		switch (Character.toLowerCase(unit)) {
+			case 's':
+				return 1;
+			case 'm':
+				return TimeUnit.MINUTES.toSeconds(1);
+			case 'h':
+				return TimeUnit.HOURS.toSeconds(1);
+			case 'd':
+				return TimeUnit.DAYS.toSeconds(1);
+			case 'w':
+				return TimeUnit.DAYS.toSeconds(7);
+			default:
+				throw new IllegalArgumentException("Unknown unit " + unit);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Binding {
+
+		boolean bind(CommandContext context, String content, int start, int end, BoundParameters target, int index);
+
+	}
+
+	private static final class BasicType implements ParameterType {
+
+		private final String name;
+		private final boolean greedy;
+		private final Binding binding;
+
+		BasicType(String name, boolean greedy, Binding binding) {
+			this.name = name;
+			this.greedy = greedy;
+			this.binding = binding;
+		}
+
+		@Override
+		public boolean bind(CommandContext context, String content, int start, int end, BoundParameters target,
+				int index) {
+			return this.binding.bind(context, content, start, end, target, index);
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public boolean isGreedy() {
+			return this.greedy;
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.github.markozajc.lithium.commands.cache;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.utils.Parameters;
+import com.github.markozajc.lithium.processes.context.CommandContext;
+
+import net.dv8tion.jda.core.MessageBuilder;
+import net.dv8tion.jda.core.entities.Message;
+
+/**
+ * Implemented by {@link Command}s whose reply depends only on a few inputs (for
+ * example the guild or the parameters) and stays valid for a while, such as
+ * leaderboards or help pages. Instead of
+ * {@link Command#execute(CommandContext, Parameters)}, such commands
+ * {@link #render(CommandContext, Parameters)} a {@link Message} that is stored in
+ * the {@link ResultCache} and sent again, without rendering, to any call with the
+ * same cache key until it expires.
+ *
+ * @author Marko Zajc
+ */
+public interface Cacheable {
+
+	/**
+	 * Computes the key a call's result is cached under. Calls with equal keys (of the
+	 * same command) share the cached result, so the key must include everything the
+	 * result depends on, for example the guild's ID and normalized parameters.
+	 *
+	 * @param context
+	 *            The {@link CommandContext} of the call.
+	 * @param params
+	 *            The call's parameters.
+	 * @return The cache key or {@code null} to render this call without caching it.
+	 */
+	@Nullable
+	public String getCacheKey(@Nonnull CommandContext context, @Nonnull Parameters params);
+
+	/**
+	 * @return How long a rendered result stays valid, in milliseconds.
+	 */
+	@Nonnegative
+	public long getCacheTtl();
+
+	/**
+	 * Renders the command's reply. Embeds can be wrapped with
+	 * {@link MessageBuilder#setEmbed(net.dv8tion.jda.core.entities.MessageEmbed)}.
+	 *
+	 * @param context
+	 *            The {@link CommandContext} of the call.
+	 * @param params
+	 *            The call's parameters.
+	 * @return The reply, which will be sent to the call's channel.
+	 * @throws Throwable
+	 */
+	@Nonnull
+	public Message render(@Nonnull CommandContext context, @Nonnull Parameters params) throws Throwable; // NOSONAR
+
+}
@@ -0,0 +1,218 @@
+package com.github.markozajc.lithium.commands.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
+
+import net.dv8tion.jda.core.entities.Message;
+
+/**
+ * A size-bounded cache of rendered results of {@link Cacheable} commands. Entries
+ * expire after their command's {@link Cacheable#getCacheTtl()} and, once the cache
+ * is full, the least recently used entry is evicted.
+ *
+ * @author Marko Zajc
+ */
+public class ResultCache {
+
+	private final int maximumSize;
+	private final LinkedHashMap<Key, Entry> entries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a new {@link ResultCache}.
+	 *
+	 * @param maximumSize
+	 *            The maximum number of cached results.
+	 */
+	public ResultCache(@Nonnegative int maximumSize) {
+		this.maximumSize = maximumSize;
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				if (size() <= ResultCache.this.maximumSize)
+					return false;
+
+				ResultCache.this.evictions.increment();
+				return true;
+			}
+
+		};
+	}
+
+	/**
+	 * Retrieves a cached result.
+	 *
+	 * @param commandId
+	 *            The ID of the command the result belongs to (see
+	 *            {@link CommandList#getId(Command)}).
+	 * @param key
+	 *            The cache key (see
+	 *            {@link Cacheable#getCacheKey(com.github.markozajc.lithium.processes.context.CommandContext, com.github.markozajc.lithium.commands.utils.Parameters)}).
+	 * @return The cached result or {@code null} if there is none or it has expired.
+	 */
+	@Nullable
+	public Message get(int commandId, @Nonnull String key) {
+		Key cacheKey = new Key(commandId, key);
+		long now = System.currentTimeMillis();
+		synchronized (this.entries) {
+			Entry entry = this.entries.get(cacheKey);
+			if (entry != null) {
+				if (entry.expiresAt > now) {
+					this.hits.increment();
+					return entry.message;
+				}
+
+				this.entries.remove(cacheKey);
+				// Drops the expired entry right away
+			}
+		}
+
+		this.misses.increment();
+		return null;
+	}
+
+	/**
+	 * Caches a result.
+	 *
+	 * @param commandId
+	 *            The ID of the command the result belongs to (see
+	 *            {@link CommandList#getId(Command)}).
+	 * @param key
+	 *            The cache key.
+	 * @param message
+	 *            The result.
+	 * @param ttl
+	 *            How long the result stays valid, in milliseconds.
+	 */
+	public void put(int commandId, @Nonnull String key, @Nonnull Message message, long ttl) {
+		if (ttl <= 0 || this.maximumSize == 0)
+			return;
+
+		Entry entry = new Entry(message, System.currentTimeMillis() + ttl);
+		synchronized (this.entries) {
+			this.entries.put(new Key(commandId, key), entry);
+		}
+	}
+
+	/**
+	 * Invalidates a single cached result.
+	 *
+	 * @param commandId
+	 *            The ID of the command the result belongs to (see
+	 *            {@link CommandList#getId(Command)}).
+	 * @param key
+	 *            The cache key.
+	 */
+	public void invalidate(int commandId, @Nonnull String key) {
+		synchronized (this.entries) {
+			this.entries.remove(new Key(commandId, key));
+		}
+	}
+
+	/**
+	 * Invalidates all cached results of a {@link Command}.
+	 *
+	 * @param commandId
+	 *            The ID of the {@link Command} (see {@link CommandList#getId(Command)}).
+	 */
+	public void invalidate(int commandId) {
+		synchronized (this.entries) {
+			Iterator<Key> keys = this.entries.keySet().iterator();
+			while (keys.hasNext()) {
+				if (keys.next().commandId == commandId)
+					keys.remove();
+			}
+		}
+	}
+
+	/**
+	 * Invalidates all cached results.
+	 */
+	public void invalidateAll() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	/**
+	 * @return The number of cached results (including ones that have expired, but
+	 *         haven't been dropped yet).
+	 */
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * @return The number of lookups that returned a cached result.
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * @return The number of lookups that didn't.
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * @return The number of results evicted to make room for new ones.
+	 */
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	private static final class Key {
+
+		final int commandId;
+		final String key;
+
+		Key(int commandId, String key) {
+			this.commandId = commandId;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+			return this.commandId == other.commandId && this.key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.commandId + this.key.hashCode();
+		}
+
+	}
+
+	private static final class Entry {
+
+		final Message message;
+		final long expiresAt;
+
+		Entry(Message message, long expiresAt) {
+			this.message = message;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
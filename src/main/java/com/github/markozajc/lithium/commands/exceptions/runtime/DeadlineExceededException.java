@@ -0,0 +1,19 @@
+package com.github.markozajc.lithium.commands.exceptions.runtime;
+
+import com.github.markozajc.lithium.Constants;
+import com.github.markozajc.lithium.commands.exceptions.CommandException;
+import com.github.markozajc.lithium.processes.context.ProcessContext;
+
+/**
+ * Indicates that a process has been cancelled because it ran past its deadline (see
+ * {@link ProcessContext#getRemainingNanos()}).
+ *
+ * @author Marko Zajc
+ */
+public class DeadlineExceededException extends CommandException {
+
+	public DeadlineExceededException() {
+		super("// TIMED OUT //", "This took too long to finish and has been stopped.", Constants.GRAY, false);
+	}
+
+}
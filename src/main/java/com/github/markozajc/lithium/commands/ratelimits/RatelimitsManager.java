@@ -3,7 +3,10 @@ package com.github.markozajc.lithium.commands.ratelimits;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.Nullable;
+
 import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
 
 public class RatelimitsManager {
 
@@ -19,13 +22,33 @@ public class RatelimitsManager {
 	 * @param command
 	 *            command to retrieve ratelimits for
 	 * @return never-null ratelimits for that identifier
+	 * @deprecated use {@link #getRatelimits(Command, CommandList)}, which tells apart
+	 *             subcommands of different commands that share a name
 	 */
+	@Deprecated
 	public static Ratelimits getRatelimits(final Command command) {
-		if (!RATELIMITS.containsKey(command.getRatelimitId())) {
-			RATELIMITS.put(command.getRatelimitId(), new Ratelimits());
-		}
+		return getRatelimits(command, null);
+	}
+
+	/**
+	 * Creates / retrieves ratelimits for a command. If ratelimits do not exist already,
+	 * they will be created and configured with waiting time of 0 seconds.
+	 * 
+	 * @param command
+	 *            command to retrieve ratelimits for
+	 * @param commands
+	 *            the {@link CommandList} the command was called from, used to extend the
+	 *            default {@link Command#getRatelimitId()} (its name) to its full name, or
+	 *            {@code null} to use the ratelimit ID as is
+	 * @return never-null ratelimits for that identifier
+	 */
+	public static Ratelimits getRatelimits(final Command command, @Nullable final CommandList commands) {
+		String id = command.getRatelimitId();
+		if (commands != null && id.equals(command.getName()))
+			id = commands.getFullName(command);
+		// Commands that don't share their ratelimit are told apart by their full names
 
-		return RATELIMITS.get(command.getRatelimitId());
+		return RATELIMITS.computeIfAbsent(id, k -> new Ratelimits());
 	}
 
 }
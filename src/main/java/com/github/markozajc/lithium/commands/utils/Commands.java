@@ -1,8 +1,11 @@
 package com.github.markozajc.lithium.commands.utils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
+import com.github.markozajc.lithium.commands.binding.ParameterBinder;
 import com.github.markozajc.lithium.commands.exceptions.startup.UsageException;
 
 import net.dv8tion.jda.core.events.message.guild.GuildMessageReceivedEvent;
@@ -21,16 +24,39 @@ public class Commands {
 	 * @param command
 	 * @param prefix
 	 * @return usage for that command
+	 * @deprecated use {@link #buildUsage(Command, CommandList, String)}, which includes
+	 *             the names of parent commands and typed parameters
 	 */
-	@SuppressWarnings("null")
+	@Deprecated
 	@Nonnull
 	public static String buildUsage(Command command, String prefix) {
+		return buildUsage(command, null, prefix);
+	}
+
+	/**
+	 * Creates an usage string for a command using a prefix. Example of an usage
+	 * string:<br>
+	 * {@code*command <param1> <param2>}<br>
+	 * where {@code *} is the prefix, {@code command} is the command's full name and
+	 * {@code param1} and {@code param2} are the parameters
+	 * 
+	 * @param command
+	 * @param commands
+	 *            the {@link CommandList} to take the command's full name and typed
+	 *            parameters from or {@code null} to use just its name
+	 * @param prefix
+	 * @return usage for that command
+	 */
+	@SuppressWarnings("null")
+	@Nonnull
+	public static String buildUsage(Command command, @Nullable CommandList commands, String prefix) {
 		StringBuilder usage = new StringBuilder();
 
 		usage.append(prefix);
-		usage.append(command.getName());
+		usage.append(commands == null ? command.getName() : commands.getFullName(command));
 
-		for (String param : command.getParameters())
+		ParameterBinder binder = commands == null ? null : commands.getParameterBinder(command);
+		for (String param : binder == null ? command.getParameters() : binder.getNames())
 			usage.append(" <" + param + ">");
 
 		return usage.toString();
@@ -57,6 +83,28 @@ public class Commands {
 		return params;
 	}
 
+	/**
+	 * Generates Parameters for a command from an already parsed invocation, without
+	 * tokenizing the message again.
+	 *
+	 * @param command
+	 *            command to generate parameters for
+	 * @param invocation
+	 *            the parsed invocation to generate parameters from
+	 * @return parameters
+	 * @throws UsageException
+	 *             if {@link Command#getMinParameters()} is more than quantity of actual
+	 *             parameters in the invocation
+	 */
+	public static Parameters generateParameters(Command command, ParsedInvocation invocation) {
+		Parameters params = invocation.toParameters(command.getParameters().length);
+		if (!params.check(command.getMinParameters())) {
+			throw new UsageException();
+		}
+
+		return params;
+	}
+
 	/**
 	 * @param vars
 	 *            variables to use
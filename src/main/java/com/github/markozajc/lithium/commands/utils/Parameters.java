@@ -1,9 +1,7 @@
 package com.github.markozajc.lithium.commands.utils;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
 import com.github.markozajc.lithium.commands.exceptions.runtime.NumberOverflowException;
 import com.github.markozajc.lithium.commands.exceptions.startup.MissingParametersException;
@@ -11,50 +9,75 @@ import com.github.markozajc.lithium.utilities.Parser;
 
 public class Parameters implements Iterable<String> {
 
-	private String[] parametersArray;
-	private int parametersDesiredQuantity = 0;
+	private final String content;
+	private final int[] tokens;
+	private final int firstToken;
+	private final int parametersQuantity;
+	private final String[] parametersArray;
+	private final int parametersDesiredQuantity;
 
 	/**
 	 * Formats a string with a command call into array of parameters.
-	 * 
+	 *
 	 * @param input
 	 *            command call
 	 * @param limit
 	 *            splitter limit, 0 for no limit
 	 * @param trim
-	 *            whether to trim the results
+	 *            ignored, parameters are always trimmed
 	 * @param omitName
 	 *            whether to omit command's name
 	 * @return an array of input parameters
+	 * @deprecated parameters are now always trimmed, use
+	 *             {@link #formatParams(String, int, boolean)} instead
 	 */
-	public static String[] formatParams(String input, int limit, boolean trim, boolean omitName) {
-		String[] splitted = input.split("\n| ", limit);
-
-		if (splitted[0].startsWith("<@") && splitted[0].endsWith(">"))
-			splitted = input.split("\n| ", limit > 0 ? limit + 1 : 0);
+	@Deprecated
+	public static String[] formatParams(String input, int limit, @SuppressWarnings("unused") boolean trim,
+			boolean omitName) {
+		return formatParams(input, limit, omitName);
+	}
 
-		List<String> result = new ArrayList<>(Arrays.asList(splitted));
+	/**
+	 * Formats a string with a command call into array of parameters. Parameters are
+	 * separated by any run of whitespace or control characters (every character up to
+	 * and including {@code ' '}, so tabs and carriage returns as well as spaces and
+	 * newlines) and are always trimmed.
+	 *
+	 * @param input
+	 *            command call
+	 * @param limit
+	 *            splitter limit, 0 for no limit
+	 * @param omitName
+	 *            whether to omit command's name
+	 * @return an array of input parameters
+	 */
+	public static String[] formatParams(String input, int limit, boolean omitName) {
+		int[] tokens = Tokenizer.tokenize(input, 0);
+		boolean mention = isNamePrefixedByMention(input, tokens);
 
+		int first = 0;
+		int quantity = limit > 0 ? limit : Integer.MAX_VALUE;
 		if (omitName) {
+			first = Math.min(mention ? 2 : 1, tokens.length / 2);
+			if (limit > 0)
+				quantity = limit - 1;
+			// The limit includes the name
 
-			if (result.get(0).startsWith("<@") && result.get(0).endsWith(">"))
-				result.remove(1);
-
-			result.remove(0);
+		} else if (mention && limit > 0) {
+			quantity = limit + 1;
+			// The mention doesn't count towards the limit
 		}
 
-		result.removeIf(t -> t.trim().equals(""));
-
-		if (trim) {
-			result.replaceAll(String::trim);
-		}
+		return new Parameters(input, tokens, first, quantity).asArray();
+	}
 
-		return result.toArray(new String[result.size()]);
+	private static boolean isMention(String input, int start, int end) {
+		return input.startsWith("<@", start) && input.charAt(end - 1) == '>';
 	}
 
 	/**
 	 * Creates parameter system.
-	 * 
+	 *
 	 * @param quantity
 	 *            desired quantity of parameters. If there are more, they will be merged
 	 *            with the last parameter
@@ -62,15 +85,44 @@ public class Parameters implements Iterable<String> {
 	 *            full command
 	 */
 	public Parameters(int quantity, String command) {
-		String[] parameters = formatParams(command, quantity + 1, true, true);
+		this(command, Tokenizer.tokenize(command, 0), quantity);
+	}
+
+	private Parameters(String command, int[] tokens, int quantity) {
+		this(command, tokens, Math.min(isNamePrefixedByMention(command, tokens) ? 2 : 1, tokens.length / 2),
+				quantity);
+	}
 
-		this.parametersArray = parameters;
+	/**
+	 * Creates parameter system over already tokenized content. No {@link String}s are
+	 * created until a parameter is actually read.
+	 *
+	 * @param content
+	 *            the tokenized content
+	 * @param tokens
+	 *            token offsets, as returned by {@link Tokenizer#tokenize(String, int)}
+	 * @param firstToken
+	 *            index of the token that is the first parameter
+	 * @param quantity
+	 *            desired quantity of parameters. If there are more, they will be merged
+	 *            with the last parameter
+	 */
+	public Parameters(String content, int[] tokens, int firstToken, int quantity) {
+		this.content = content;
+		this.tokens = tokens;
+		this.firstToken = firstToken;
+		this.parametersQuantity = Math.max(Math.min(tokens.length / 2 - firstToken, quantity), 0);
+		this.parametersArray = new String[this.parametersQuantity];
 		this.parametersDesiredQuantity = quantity;
 	}
 
+	private static boolean isNamePrefixedByMention(String command, int[] tokens) {
+		return tokens.length > 0 && isMention(command, tokens[0], tokens[1]);
+	}
+
 	/**
 	 * Gets parameter at index as a string
-	 * 
+	 *
 	 * @param index
 	 *            index of parameter to get
 	 * @return parameter at index as an string
@@ -78,24 +130,65 @@ public class Parameters implements Iterable<String> {
 	 *             if no parameter is at that index
 	 */
 	public String get(int index) {
-		try {
-			if (this.parametersArray == null || this.parametersArray[index] == null) {
-				return null;
-			}
-		} catch (ArrayIndexOutOfBoundsException e) {
+		if (index < 0 || index >= this.parametersQuantity)
 			throw new MissingParametersException();
-		}
-		// If requested parameter is null or all the parameters are null
 
-		if (this.parametersArray[index] == null) {
-			return null;
+		String parameter = this.parametersArray[index];
+		if (parameter == null) {
+			parameter = this.content.substring(getStart(index), getEnd(index));
+			this.parametersArray[index] = parameter;
 		}
-		return this.parametersArray[index].trim();
+		// Materializes the parameter on first access
+
+		return parameter;
+	}
+
+	/**
+	 * Gets the offset of a parameter's first character in the original content.
+	 *
+	 * @param index
+	 *            index of parameter
+	 * @return offset of the parameter's first character (inclusive)
+	 * @throws MissingParametersException
+	 *             if no parameter is at that index
+	 */
+	public int getStart(int index) {
+		if (index < 0 || index >= this.parametersQuantity)
+			throw new MissingParametersException();
+
+		return this.tokens[(this.firstToken + index) * 2];
+	}
+
+	/**
+	 * Gets the offset of a parameter's last character in the original content.
+	 *
+	 * @param index
+	 *            index of parameter
+	 * @return offset of the parameter's last character (exclusive)
+	 * @throws MissingParametersException
+	 *             if no parameter is at that index
+	 */
+	public int getEnd(int index) {
+		if (index < 0 || index >= this.parametersQuantity)
+			throw new MissingParametersException();
+
+		if (index == this.parametersQuantity - 1)
+			return this.tokens[this.tokens.length - 1];
+		// The last parameter spans all remaining tokens
+
+		return this.tokens[(this.firstToken + index) * 2 + 1];
+	}
+
+	/**
+	 * @return the content these parameters were parsed from
+	 */
+	public String getContent() {
+		return this.content;
 	}
 
 	/**
 	 * Gets parameter at index as a primitive type int.
-	 * 
+	 *
 	 * @param index
 	 *            index of parameter to get
 	 * @return parameter at index as an int
@@ -112,7 +205,7 @@ public class Parameters implements Iterable<String> {
 
 	/**
 	 * Gets parameter at index as a primitive type long.
-	 * 
+	 *
 	 * @param index
 	 *            index of parameter to get
 	 * @return parameter at index as an long
@@ -128,9 +221,9 @@ public class Parameters implements Iterable<String> {
 	}
 
 	/**
-	 * Checks if parameters are null, if at least one parameter is an empty string or if
-	 * there are not enough of them (less than provided parametersDesiredQuantity)
-	 * 
+	 * Checks if there are not enough parameters (less than provided
+	 * parametersDesiredQuantity)
+	 *
 	 * @return true if everything is OK, false if not
 	 */
 	public boolean check() {
@@ -138,41 +231,39 @@ public class Parameters implements Iterable<String> {
 	}
 
 	/**
-	 * Checks if parameters are null, if at least one parameter is an empty string or if
-	 * there are not enough of them (less than min)
-	 * 
+	 * Checks if there are not enough parameters (less than min). Parameters are never
+	 * empty.
+	 *
 	 * @param min
 	 *            - minimum number of parameters
 	 * @return true if everything is OK, false if not
 	 */
 	public boolean check(int min) {
-		for (int i = 0; i < this.parametersArray.length; i++) {
-			if (this.parametersArray[i].length() < 1 && i <= min) {
-				return false;
-			}
-		}
-
-		return min <= this.parametersArray.length;
+		return min <= this.parametersQuantity;
 	}
 
 	/**
 	 * Returns length of current parameters object
-	 * 
+	 *
 	 * @return quantity of parameters
 	 */
 	public int size() {
-		return this.parametersArray.length;
+		return this.parametersQuantity;
 	}
 
 	/**
 	 * @return parameters as an array
 	 */
 	public String[] asArray() {
-		return this.parametersArray.clone();
+		String[] result = new String[this.parametersQuantity];
+		for (int i = 0; i < result.length; i++)
+			result[i] = get(i);
+
+		return result;
 	}
 
 	@Override
 	public Iterator<String> iterator() {
-		return Arrays.asList(this.parametersArray).iterator();
+		return Arrays.asList(asArray()).iterator();
 	}
 }
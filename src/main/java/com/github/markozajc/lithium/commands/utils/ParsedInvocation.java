@@ -0,0 +1,187 @@
+package com.github.markozajc.lithium.commands.utils;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
+import com.github.markozajc.lithium.utilities.PrefixMatcher;
+
+/**
+ * A command call that has been parsed once, when it was received. It holds the raw
+ * content along with the length of the prefix, the span of the command's name and the
+ * offsets of all tokens that follow it, so {@link Parameters} can be created from it
+ * without tokenizing the content again.
+ *
+ * @author Marko Zajc
+ */
+public class ParsedInvocation {
+
+	@Nonnull
+	private final String content;
+	private final int prefixLength;
+	private final int nameStart;
+	private final int nameEnd;
+	@Nonnull
+	private final int[] tokens;
+	private final int subcommandDepth;
+
+	/**
+	 * Creates a new {@link ParsedInvocation}, tokenizing everything after the command's
+	 * name.
+	 *
+	 * @param content
+	 *            The raw content of the message.
+	 * @param prefixLength
+	 *            The length of the matched prefix.
+	 * @param nameStart
+	 *            The index of the name's first character (inclusive).
+	 * @param nameEnd
+	 *            The index of the name's last character (exclusive).
+	 */
+	public ParsedInvocation(@Nonnull String content, @Nonnegative int prefixLength, @Nonnegative int nameStart,
+			@Nonnegative int nameEnd) {
+		this.content = content;
+		this.prefixLength = prefixLength;
+		this.nameStart = nameStart;
+		this.nameEnd = nameEnd;
+		this.tokens = Tokenizer.tokenize(content, nameEnd);
+		this.subcommandDepth = 0;
+	}
+
+	private ParsedInvocation(@Nonnull ParsedInvocation invocation, int subcommandDepth) {
+		this.content = invocation.content;
+		this.prefixLength = invocation.prefixLength;
+		this.nameStart = invocation.nameStart;
+		this.nameEnd = invocation.nameEnd;
+		this.tokens = invocation.tokens;
+		this.subcommandDepth = subcommandDepth;
+	}
+
+	/**
+	 * Parses a command call. If the content doesn't start with any of the prefixes, it
+	 * is parsed as if it had an empty prefix.
+	 *
+	 * @param content
+	 *            The raw content of the message.
+	 * @param prefixes
+	 *            The {@link PrefixMatcher} to match the prefix with.
+	 * @return The parsed invocation.
+	 */
+	@Nonnull
+	public static ParsedInvocation parse(@Nonnull String content, @Nonnull PrefixMatcher prefixes) {
+		int prefix = prefixes.match(content);
+		int prefixLength = prefix < 0 ? 0 : prefixes.getPrefix(prefix).length();
+		int nameStart = Tokenizer.skipSeparators(content, prefixLength);
+
+		return new ParsedInvocation(content, prefixLength, nameStart, Tokenizer.findSeparator(content, nameStart));
+	}
+
+	/**
+	 * Creates a view of this invocation in which the first {@code depth} tokens
+	 * following the name are names of subcommands and are no longer considered
+	 * parameters. The tokens are shared, not copied.
+	 *
+	 * @param depth
+	 *            The number of subcommand names, usually
+	 *            {@link CommandList#getDepth(Command)} of the resolved subcommand.
+	 * @return The view or this invocation if the depth is the same.
+	 */
+	@Nonnull
+	public ParsedInvocation withSubcommandDepth(@Nonnegative int depth) {
+		if (depth == this.subcommandDepth)
+			return this;
+
+		if (depth > this.tokens.length / 2)
+			throw new IllegalArgumentException(
+					"Subcommand depth " + depth + " exceeds the number of tokens (" + this.tokens.length / 2 + ").");
+
+		return new ParsedInvocation(this, depth);
+	}
+
+	/**
+	 * Creates {@link Parameters} for a {@link Command} out of the tokens following its
+	 * name (and names of subcommands). No tokenizing is done.
+	 *
+	 * @param quantity
+	 *            The desired quantity of parameters. If there are more, they will be
+	 *            merged with the last parameter.
+	 * @return The {@link Parameters}.
+	 */
+	@Nonnull
+	public Parameters toParameters(@Nonnegative int quantity) {
+		return new Parameters(this.content, this.tokens, this.subcommandDepth, quantity);
+	}
+
+	/**
+	 * @return The raw content of the message.
+	 */
+	@Nonnull
+	public String getContent() {
+		return this.content;
+	}
+
+	/**
+	 * @return The length of the matched prefix (including mentions).
+	 */
+	public int getPrefixLength() {
+		return this.prefixLength;
+	}
+
+	/**
+	 * @return The index of the name's first character (inclusive).
+	 */
+	public int getNameStart() {
+		return this.nameStart;
+	}
+
+	/**
+	 * @return The index of the name's last character (exclusive).
+	 */
+	public int getNameEnd() {
+		return this.nameEnd;
+	}
+
+	/**
+	 * @return The name (or alias) of the command, as it was typed.
+	 */
+	@Nonnull
+	public String getName() {
+		return this.content.substring(this.nameStart, this.nameEnd);
+	}
+
+	/**
+	 * @return The number of tokens following the name (and names of subcommands).
+	 */
+	public int getTokenCount() {
+		return this.tokens.length / 2 - this.subcommandDepth;
+	}
+
+	/**
+	 * @param index
+	 *            The index of a token, counted from the first token following the name
+	 *            (and names of subcommands).
+	 * @return The index of the token's first character (inclusive).
+	 */
+	public int getTokenStart(@Nonnegative int index) {
+		return this.tokens[(this.subcommandDepth + index) * 2];
+	}
+
+	/**
+	 * @param index
+	 *            The index of a token, counted from the first token following the name
+	 *            (and names of subcommands).
+	 * @return The index of the token's last character (exclusive).
+	 */
+	public int getTokenEnd(@Nonnegative int index) {
+		return this.tokens[(this.subcommandDepth + index) * 2 + 1];
+	}
+
+	/**
+	 * @return The number of subcommand names following the name.
+	 */
+	public int getSubcommandDepth() {
+		return this.subcommandDepth;
+	}
+
+}
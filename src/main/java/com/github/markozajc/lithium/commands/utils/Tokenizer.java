@@ -0,0 +1,91 @@
+package com.github.markozajc.lithium.commands.utils;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Splits command calls into tokens without copying them. Tokens are recorded as
+ * offsets into the original {@link String} and are separated by runs of whitespace
+ * and control characters (anything that {@link String#trim()} would strip).
+ *
+ * @author Marko Zajc
+ */
+public class Tokenizer {
+
+	private static final int INITIAL_TOKENS = 8;
+
+	private Tokenizer() {}
+
+	/**
+	 * Tokenizes a {@link String}.
+	 *
+	 * @param content
+	 *            The {@link String} to tokenize.
+	 * @param from
+	 *            The index to start at.
+	 * @return An array of token offsets, two for each token: the index of its first
+	 *         character (inclusive) and the index of its last character (exclusive).
+	 */
+	@Nonnull
+	public static int[] tokenize(@Nonnull String content, int from) {
+		int[] offsets = new int[INITIAL_TOKENS * 2];
+		int count = 0;
+
+		int start = skipSeparators(content, from);
+		while (start < content.length()) {
+			int end = findSeparator(content, start);
+
+			if (count == offsets.length)
+				offsets = Arrays.copyOf(offsets, count * 2);
+			offsets[count++] = start;
+			offsets[count++] = end;
+
+			start = skipSeparators(content, end);
+		}
+
+		return count == offsets.length ? offsets : Arrays.copyOf(offsets, count);
+	}
+
+	/**
+	 * @param content
+	 *            The {@link String} to search.
+	 * @param from
+	 *            The index to start at.
+	 * @return The index of the first non-separator character at or after {@code from}
+	 *         or the length of {@code content} if there is none.
+	 */
+	public static int skipSeparators(@Nonnull String content, int from) {
+		int i = from;
+		while (i < content.length() && isSeparator(content.charAt(i)))
+			i++;
+
+		return i;
+	}
+
+	/**
+	 * @param content
+	 *            The {@link String} to search.
+	 * @param from
+	 *            The index to start at.
+	 * @return The index of the first separator character at or after {@code from} or
+	 *         the length of {@code content} if there is none.
+	 */
+	public static int findSeparator(@Nonnull String content, int from) {
+		int i = from;
+		while (i < content.length() && !isSeparator(content.charAt(i)))
+			i++;
+
+		return i;
+	}
+
+	/**
+	 * @param c
+	 *            The character to check.
+	 * @return Whether the character separates tokens.
+	 */
+	public static boolean isSeparator(char c) {
+		return c <= ' ';
+	}
+
+}
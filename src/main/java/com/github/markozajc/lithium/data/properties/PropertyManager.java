@@ -4,15 +4,20 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
+import com.github.markozajc.lithium.processes.LithiumProcess;
+
 /**
  * A class used to represent a property manager that can read/write properties.
  *
  * @author Marko Zajc
  */
-public abstract class PropertyManager {
+public abstract class PropertyManager implements AutoCloseable {
 
 	protected final ExecutorService executor;
 
@@ -20,6 +25,72 @@ public abstract class PropertyManager {
 		this.executor = executor;
 	}
 
+	/**
+	 * Submits an operation to the executor. If called from a {@link LithiumProcess},
+	 * the returned {@link Future} is cancelled along with that process, so a cancelled
+	 * process or one that runs past its deadline doesn't stay blocked on it. A process
+	 * that's already cancelled or past its deadline can't submit operations at all.
+	 * Implementations should submit all of their reading operations through this
+	 * method, and writing ones through {@link #submitWrite(Callable)}.
+	 *
+	 * @param operation
+	 *            The operation to submit.
+	 * @return {@link Future} of the operation
+	 * @throws CancellationException
+	 *             If the calling {@link LithiumProcess} has been cancelled or its
+	 *             deadline has passed.
+	 */
+	protected <T> Future<T> submit(Callable<T> operation) {
+		LithiumProcess<?> process = LithiumProcess.current();
+		if (process != null && (process.isCancelled() || process.getContext().isExpired()))
+			throw new CancellationException();
+		// Doesn't start operations the process has no time left to wait for
+
+		Future<T> future = this.executor.submit(operation);
+		if (process != null)
+			process.trackFuture(future);
+
+		return future;
+	}
+
+	/**
+	 * Submits a writing operation to the executor. Like {@link #submit(Callable)}, the
+	 * returned {@link Future} is cancelled along with the calling
+	 * {@link LithiumProcess}, but that only releases the process waiting on it: the
+	 * operation itself is never cancelled or interrupted, so it can't be cut short
+	 * halfway through a write (for example leaving a truncated file or a broken shared
+	 * connection behind).
+	 *
+	 * @param operation
+	 *            The operation to submit.
+	 * @return {@link Future} of the operation
+	 * @throws CancellationException
+	 *             If the calling {@link LithiumProcess} has been cancelled or its
+	 *             deadline has passed.
+	 */
+	protected <T> Future<T> submitWrite(Callable<T> operation) {
+		LithiumProcess<?> process = LithiumProcess.current();
+		if (process != null && (process.isCancelled() || process.getContext().isExpired()))
+			throw new CancellationException();
+		// Doesn't start writes the process has no time left to wait for
+
+		if (process == null)
+			return this.executor.submit(operation);
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		this.executor.execute(() -> {
+			try {
+				result.complete(operation.call());
+			} catch (Throwable t) { // NOSONAR
+				result.completeExceptionally(t);
+			}
+		});
+		process.trackFuture(result);
+		// Cancelling a CompletableFuture only completes it, the write keeps running
+
+		return result;
+	}
+
 	/**
 	 * Sets a property.
 	 *
@@ -60,7 +131,7 @@ public abstract class PropertyManager {
 	 * @return A {@link Map} of keys and values.
 	 */
 	public Future<Map<String, String>> getPropertyBatch(Collection<String> keys) {
-		return this.executor.submit(() -> {
+		return submit(() -> {
 
 			Map<String, String> result = new HashMap<>();
 			for (String key : keys)
@@ -70,6 +141,14 @@ public abstract class PropertyManager {
 		});
 	}
 
+	/**
+	 * Releases resources held by this {@link PropertyManager}, such as database
+	 * connections. The executor is shared, so it's not shut down. Operations should not
+	 * be submitted afterwards. Does nothing by default.
+	 */
+	@Override
+	public void close() {}
+
 	/**
 	 * Retrieves a property with a default (null) value.
 	 *
@@ -80,7 +159,7 @@ public abstract class PropertyManager {
 	 * @return property's value or provided default if that property does not exist
 	 */
 	public final Future<String> getProperty(String key, String defaultVal) {
-		return this.executor.submit(() -> {
+		return submit(() -> {
 			String property = getProperty(key).get();
 			if (property == null) {
 				return defaultVal;
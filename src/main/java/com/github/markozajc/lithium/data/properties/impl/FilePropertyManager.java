@@ -40,7 +40,7 @@ public class FilePropertyManager extends PropertyManager {
 
 	@Override
 	public Future<Void> setProperty(String key, String value) {
-		return this.executor.submit(() -> {
+		return submitWrite(() -> {
 			Files.write(new File(this.propertiesDirectory, key + "." + EXTENSION).toPath(),
 				value.getBytes(StandardCharsets.UTF_8), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING,
 				StandardOpenOption.CREATE);
@@ -50,7 +50,7 @@ public class FilePropertyManager extends PropertyManager {
 
 	@Override
 	public Future<Void> removeProperty(String key) {
-		return this.executor.submit(() -> {
+		return submitWrite(() -> {
 			File file = new File(this.propertiesDirectory, key + "." + EXTENSION);
 			if (file.exists())
 				Files.delete(file.toPath());
@@ -61,7 +61,7 @@ public class FilePropertyManager extends PropertyManager {
 
 	@Override
 	public Future<String> getProperty(String key) {
-		return this.executor.submit(() -> {
+		return submit(() -> {
 			File file = new File(this.propertiesDirectory, key + "." + EXTENSION);
 			if (!file.exists())
 				return null;
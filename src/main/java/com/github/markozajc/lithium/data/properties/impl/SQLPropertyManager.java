@@ -110,9 +110,19 @@ public class SQLPropertyManager extends PropertyManager {
 		init();
 	}
 
+	@Override
+	public void close() {
+		try {
+			if (this.activeConnection != null)
+				this.activeConnection.close();
+		} catch (SQLException e) {
+			LOG.warn("Failed to close the database connection.", e);
+		}
+	}
+
 	@Override
 	public Future<Void> setProperty(String key, String value) {
-		return this.executor.submit(() -> {
+		return submitWrite(() -> {
 			try (Statement select = getConnection().createStatement()) {
 				try (Statement update = getConnection().createStatement()) {
 					update.executeUpdate(
@@ -132,7 +142,7 @@ public class SQLPropertyManager extends PropertyManager {
 
 	@Override
 	public Future<Void> removeProperty(String key) {
-		return this.executor.submit(() -> {
+		return submitWrite(() -> {
 			try (Statement s = getConnection().createStatement()) {
 				s.executeUpdate(String.format(DELETE_VALUE_STATEMENT, neutralize(key)));
 
@@ -146,7 +156,7 @@ public class SQLPropertyManager extends PropertyManager {
 
 	@Override
 	public Future<String> getProperty(String key) {
-		return this.executor.submit(() -> {
+		return submit(() -> {
 			try (Statement s = getConnection().createStatement()) {
 				try (ResultSet rs = s.executeQuery(String.format(SELECT_VALUE_STATEMENT, neutralize(key)))) {
 					if (rs.next())
@@ -162,7 +172,7 @@ public class SQLPropertyManager extends PropertyManager {
 
 	@Override
 	public Future<Map<String, String>> getPropertyBatch(Collection<String> keys) {
-		return this.executor.submit(() -> {
+		return submit(() -> {
 
 			Map<String, String> result = new HashMap<>();
 			try (Statement s = getConnection().createStatement();
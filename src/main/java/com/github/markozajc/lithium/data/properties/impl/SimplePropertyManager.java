@@ -24,7 +24,7 @@ public class SimplePropertyManager extends PropertyManager {
 
 	@Override
 	public Future<Void> setProperty(String key, String value) {
-		return this.executor.submit(() -> {
+		return submitWrite(() -> {
 			this.properties.setProperty(key, value);
 			return null;
 		});
@@ -32,7 +32,7 @@ public class SimplePropertyManager extends PropertyManager {
 
 	@Override
 	public Future<Void> removeProperty(String key) {
-		return this.executor.submit(() -> {
+		return submitWrite(() -> {
 			this.properties.remove(key);
 			return null;
 		});
@@ -40,7 +40,7 @@ public class SimplePropertyManager extends PropertyManager {
 
 	@Override
 	public Future<String> getProperty(String key) {
-		return this.executor.submit(() -> this.properties.getProperty(key));
+		return submit(() -> this.properties.getProperty(key));
 	}
 
 }
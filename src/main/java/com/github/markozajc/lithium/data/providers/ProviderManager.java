@@ -1,10 +1,13 @@
 package com.github.markozajc.lithium.data.providers;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -22,26 +25,33 @@ public class ProviderManager {
 	@SuppressWarnings("rawtypes")
 	private final Map<Class<? extends Provider>, Provider<?>> providers = new ConcurrentHashMap<>();
 
-	public ProviderManager(List<Provider<?>> providers, Lithium lithium) {
+	/**
+	 * Creates a new {@link ProviderManager}. Providers are stored on shutdown by
+	 * {@link Lithium#shutdown(java.time.Duration)}, see
+	 * {@link #shutdownAll(PropertyManager)}.
+	 *
+	 * @param providers
+	 *            The {@link Provider}s to manage.
+	 */
+	public ProviderManager(List<Provider<?>> providers) {
 		for (Provider<?> provider : providers)
 			this.providers.put(provider.getClass(), provider);
+	}
 
-		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-
-			LOG.debug("Running ProviderManager's shutdown hook.");
-			LOG.debug("Signalling shutdown to all registered providers.");
-
-			this.providers.values().forEach(p -> {
-				try {
-					p.onShutdown();
-				} catch (Exception e) {
-					LOG.error("Caught an exception while shutting down a provider.", e);
-				}
-			});
-
-			LOG.debug("Storing all providers.");
-			this.storeAll(lithium.getPropertyManager());
-		}));
+	/**
+	 * Creates a new {@link ProviderManager}.
+	 *
+	 * @param providers
+	 *            The {@link Provider}s to manage.
+	 * @param lithium
+	 *            The {@link Lithium} instance, no longer used.
+	 * @deprecated Providers are no longer stored by a shutdown hook of their own, so
+	 *             the {@link Lithium} instance isn't needed. Use
+	 *             {@link #ProviderManager(List)} instead.
+	 */
+	@Deprecated
+	public ProviderManager(List<Provider<?>> providers, Lithium lithium) {
+		this(providers);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -84,9 +94,33 @@ public class ProviderManager {
 		}
 	}
 
+	/**
+	 * Signals shutdown to all registered {@link Provider}s (see
+	 * {@link Provider#onShutdown()}) and stores them with
+	 * {@link #storeAll(PropertyManager)}. Nothing may modify the providers' data
+	 * anymore when this is called.
+	 *
+	 * @param pm
+	 *            The {@link PropertyManager} to use.
+	 */
+	public void shutdownAll(PropertyManager pm) {
+		LOG.debug("Signalling shutdown to all registered providers.");
+		this.providers.values().forEach(p -> {
+			try {
+				p.onShutdown();
+			} catch (Exception e) {
+				LOG.error("Caught an exception while shutting down a provider.", e);
+			}
+		});
+
+		LOG.debug("Storing all providers.");
+		storeAll(pm);
+	}
+
 	/**
 	 * Stores data from all registered {@link Provider}s into the given
-	 * {@link PropertyManager}s. automatically call
+	 * {@link PropertyManager}s. All providers are submitted at once, so they are stored
+	 * in parallel, and this waits for all of them to finish. automatically call
 	 * {@link Provider#onStoreFail(Throwable)} if an exception occurs.
 	 *
 	 * @param pm
@@ -96,18 +130,28 @@ public class ProviderManager {
 		Collection<Provider<?>> providersValues = this.providers.values();
 		long start = System.currentTimeMillis();
 
+		Map<Provider<?>, Future<Void>> stores = new LinkedHashMap<>();
 		providersValues.forEach(p -> {
 			try {
-				p.store(pm).get();
-				LOG.debug("Stored {}.", p.getDataKey());
-			} catch (ExecutionException e) {
+				stores.put(p, p.store(pm));
+			} catch (RuntimeException e) {
 				p.onStoreFail(e);
+			}
+		});
+		// Serializes and submits everything before waiting on anything
+
+		for (Entry<Provider<?>, Future<Void>> store : stores.entrySet()) {
+			try {
+				store.getValue().get();
+				LOG.debug("Stored {}.", store.getKey().getDataKey());
+			} catch (ExecutionException e) {
+				store.getKey().onStoreFail(e);
 
 			} catch (InterruptedException e) {
 				LOG.info("Got interrupted while storing providers.");
 				Thread.currentThread().interrupt();
 			}
-		});
+		}
 
 		LOG.debug("Stored {} providers in {} milliseconds.", providersValues.size(),
 			System.currentTimeMillis() - start);
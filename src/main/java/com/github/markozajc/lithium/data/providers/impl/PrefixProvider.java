@@ -0,0 +1,168 @@
+package com.github.markozajc.lithium.data.providers.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.markozajc.lithium.data.providers.SnowflakeProvider;
+import com.github.markozajc.lithium.utilities.PrefixMatcher;
+import com.github.markozajc.lithium.utilities.SnowflakeMap;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * A built-in {@link SnowflakeProvider} storing custom per-guild prefixes. Besides the
+ * persistent data, it keeps a near-cache of compiled {@link PrefixMatcher}s keyed by
+ * guild ID, so resolving a guild's prefixes is a single lock-free lookup. Entries are
+ * invalidated whenever that guild's prefix is written and the whole cache is dropped
+ * when the data is (re)loaded.
+ *
+ * @author Marko Zajc
+ */
+public class PrefixProvider extends SnowflakeProvider<String> {
+
+	private static final String DATA_KEY = "lithium-prefixes";
+
+	private final String defaultPrefix;
+	private final List<String> additionalPrefixes;
+	private final SnowflakeMap<PrefixMatcher> matchers = new SnowflakeMap<>();
+	private volatile PrefixMatcher defaultMatcher;
+
+	/**
+	 * Creates a new {@link PrefixProvider}.
+	 *
+	 * @param defaultPrefix
+	 *            The prefix used in guilds without a custom prefix.
+	 * @param additionalPrefixes
+	 *            The prefixes that are recognized in every guild, regardless of its
+	 *            custom prefix.
+	 */
+	public PrefixProvider(@Nonnull String defaultPrefix, @Nonnull List<String> additionalPrefixes) {
+		this.defaultPrefix = defaultPrefix;
+		this.additionalPrefixes = Collections.unmodifiableList(additionalPrefixes);
+	}
+
+	@Override
+	public String getDataKey() {
+		return DATA_KEY;
+	}
+
+	@Override
+	public TypeToken<Map<Long, String>> getTypeToken() {
+		return new TypeToken<Map<Long, String>>() {};
+	}
+
+	@Override
+	protected LongPredicate getSnowflakeObsoleteFilter() {
+		return null;
+	}
+
+	@Override
+	protected void onDataLoaded() {
+		this.matchers.clear();
+	}
+
+	/**
+	 * Retrieves a guild's custom prefix.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The custom prefix or {@code null} if the guild uses the default one.
+	 */
+	@Nullable
+	public String getPrefix(long guildId) {
+		Map<Long, String> prefixes = this.data;
+		if (prefixes == null)
+			return null;
+		// In case the data hasn't been loaded yet
+
+		return prefixes.get(guildId);
+	}
+
+	/**
+	 * Retrieves the prefix that is effective in a guild.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The guild's custom prefix or the default prefix if it doesn't have one.
+	 */
+	@Nonnull
+	public String getEffectivePrefix(long guildId) {
+		String prefix = getPrefix(guildId);
+		return prefix == null ? this.defaultPrefix : prefix;
+	}
+
+	/**
+	 * Sets a guild's custom prefix. The change is stored along with other
+	 * {@link SnowflakeProvider}s, but takes effect immediately.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @param prefix
+	 *            The new prefix or {@code null} to revert to the default one.
+	 * @throws IllegalStateException
+	 *             If the data hasn't been loaded yet.
+	 */
+	public void setPrefix(long guildId, @Nullable String prefix) {
+		Map<Long, String> prefixes = this.data;
+		if (prefixes == null)
+			throw new IllegalStateException("Prefixes haven't been loaded yet.");
+		// Loading would replace the change anyway
+
+		if (prefix == null || prefix.equals(this.defaultPrefix)) {
+			prefixes.remove(guildId);
+
+		} else {
+			if (prefix.isEmpty())
+				throw new IllegalArgumentException("Prefixes can't be empty.");
+
+			prefixes.put(guildId, prefix);
+		}
+
+		this.matchers.remove(guildId);
+		// Invalidates after writing so that a concurrent lookup can't cache the old prefix
+		// for good (see getMatcher(long, long))
+	}
+
+	/**
+	 * Resolves a guild's {@link PrefixMatcher}, created by
+	 * {@link PrefixMatcher#forBot(long, String, List)}. This is lock-free and doesn't
+	 * allocate for guilds that have been resolved before.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @param selfId
+	 *            The bot's user ID.
+	 * @return The guild's {@link PrefixMatcher}.
+	 */
+	@Nonnull
+	public PrefixMatcher getMatcher(long guildId, long selfId) {
+		PrefixMatcher matcher = this.matchers.get(guildId);
+		if (matcher != null)
+			return matcher;
+
+		String prefix = getPrefix(guildId);
+		if (prefix == null) {
+			matcher = this.defaultMatcher;
+			if (matcher == null) {
+				matcher = PrefixMatcher.forBot(selfId, this.defaultPrefix, this.additionalPrefixes);
+				this.defaultMatcher = matcher;
+			}
+
+		} else {
+			matcher = PrefixMatcher.forBot(selfId, prefix, this.additionalPrefixes);
+		}
+
+		this.matchers.put(guildId, matcher);
+		if (!Objects.equals(prefix, getPrefix(guildId)))
+			this.matchers.remove(guildId);
+		// Drops the entry in case the prefix was changed while the matcher was being built
+
+		return matcher;
+	}
+
+}
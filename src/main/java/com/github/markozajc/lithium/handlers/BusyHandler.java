@@ -0,0 +1,72 @@
+package com.github.markozajc.lithium.handlers;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.markozajc.lithium.Constants;
+import com.github.markozajc.lithium.processes.context.CommandContext;
+import com.github.markozajc.lithium.processes.limiter.ProcessShedException;
+import com.github.markozajc.lithium.utilities.BotUtils;
+import com.github.markozajc.lithium.utilities.Cooldowns;
+
+import net.dv8tion.jda.core.entities.MessageEmbed;
+
+/**
+ * A handler called when a command is shed because the bot is overloaded (see
+ * {@link ProcessShedException}). By default it replies with a prebuilt "busy"
+ * message, at most once per channel in a configurable period, so an overloaded bot
+ * doesn't spend much on telling users it's overloaded.
+ *
+ * @author Marko Zajc
+ */
+public class BusyHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BusyHandler.class);
+
+	private final MessageEmbed message;
+	private final Cooldowns cooldowns;
+
+	/**
+	 * Creates a new {@link BusyHandler} replying at most once per channel every 30
+	 * seconds.
+	 */
+	public BusyHandler() {
+		this(30, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Creates a new {@link BusyHandler}.
+	 *
+	 * @param cooldown
+	 *            The minimum time between two replies in the same channel.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code cooldown}.
+	 */
+	public BusyHandler(long cooldown, @Nonnull TimeUnit unit) {
+		this.message = BotUtils.buildEmbed("// BUSY //",
+			"I'm a bit overloaded right now, please try again in a few seconds.", Constants.YELLOW);
+		this.cooldowns = new Cooldowns(cooldown, unit);
+	}
+
+	/**
+	 * Handles a shed command. This may be called on the event thread, so it must not
+	 * block.
+	 *
+	 * @param context
+	 *            The shed command's {@link CommandContext}.
+	 * @param exception
+	 *            The {@link ProcessShedException} describing why it was shed.
+	 */
+	public void onShed(@Nonnull CommandContext context, @Nonnull ProcessShedException exception) {
+		LOG.debug("Shed command {}: {}", context.getCommandId(), exception.getMessage());
+		if (!context.getChannel().canTalk() || !this.cooldowns.tryAcquire(context.getChannel().getIdLong()))
+			return;
+
+		context.getChannel().sendMessage(this.message).queue();
+	}
+
+}
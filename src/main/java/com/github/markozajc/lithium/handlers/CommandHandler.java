@@ -1,8 +1,16 @@
 package com.github.markozajc.lithium.handlers;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,12 +18,24 @@ import org.slf4j.LoggerFactory;
 import com.github.markozajc.lithium.commands.Command;
 import com.github.markozajc.lithium.processes.CommandProcess;
 import com.github.markozajc.lithium.processes.context.CommandContext;
+import com.github.markozajc.lithium.processes.limiter.ProcessLimitException;
 
 /**
  * A class used to handle {@link CommandProcess} execution. It does so using
  * {@link CommandListener}s which are invoked before the {@link Command} is executed
  * by a {@link CommandProcess} (to determine whether it's eligible for launch) and
  * after the {@link Command} finishes.
+ * <p>
+ * Listeners are kept in an array that is replaced as a whole when a listener is
+ * registered or removed, so dispatch iterates a consistent snapshot without locking.
+ * They are ordered by {@link CommandListener#getPriority()} and the first rejection
+ * stops the pipeline. Listeners that only implement the synchronous
+ * {@link CommandListener#canExecuteCommand(CommandContext)} are run on the
+ * {@link com.github.markozajc.lithium.processes.ProcessManager}'s gate executor when
+ * dispatching, so a blocking listener never stalls the event thread. Time spent in
+ * each listener's
+ * {@link CommandListener#canExecuteCommand(CommandContext)} is recorded and can be
+ * retrieved with {@link #getListenerStatistics()}.
  *
  * @author Marko Zajc
  */
@@ -23,7 +43,9 @@ public class CommandHandler {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CommandHandler.class);
 
-	private final Set<CommandListener> commandListeners = Collections.synchronizedSet(new HashSet<CommandListener>());
+	private static final Registration[] NO_LISTENERS = new Registration[0];
+
+	private volatile Registration[] commandListeners = NO_LISTENERS;
 
 	/**
 	 * A listener with some actions for a command
@@ -46,6 +68,32 @@ public class CommandHandler {
 			return true;
 		}
 
+		/**
+		 * The asynchronous variant of {@link #canExecuteCommand(CommandContext)}, meant for
+		 * listeners that need to wait for I/O (for example the
+		 * {@link com.github.markozajc.lithium.data.properties.PropertyManager}). Gates are
+		 * chained without blocking a thread and the command only takes an executor slot
+		 * once every gate has passed. By default this calls
+		 * {@link #canExecuteCommand(CommandContext)} on the calling thread, and the
+		 * {@link CommandHandler} moves listeners that don't override this method off the
+		 * event thread, so overrides must not block.
+		 *
+		 * @param context
+		 *            The {@link CommandContext} with the {@link Command} in question.
+		 * @return A {@link CompletionStage} completing with whether the {@link Command} is
+		 *         eligible for launch. Exceptional completion is treated as a rejection.
+		 */
+		public default CompletionStage<Boolean> canExecuteCommandAsync(CommandContext context) {
+			CompletableFuture<Boolean> result = new CompletableFuture<>();
+			try {
+				result.complete(canExecuteCommand(context));
+			} catch (Throwable e) { // NOSONAR
+				result.completeExceptionally(e);
+			}
+
+			return result;
+		}
+
 		/**
 		 * Called for each registered listener when a command execution is finished.
 		 *
@@ -55,6 +103,181 @@ public class CommandHandler {
 		 */
 		public default void onCommandFinished(CommandContext context) throws Throwable {} // NOSONAR
 
+		/**
+		 * Called for each registered listener when a {@link Command} has passed every gate,
+		 * but was rejected by the {@link com.github.markozajc.lithium.processes.ProcessManager}
+		 * because its user or guild has reached the process limit. This happens when
+		 * several commands race past a gate that checks the same limit.
+		 *
+		 * @param context
+		 *            The {@link CommandContext} with the {@link Command} in question.
+		 * @param exception
+		 *            The {@link ProcessLimitException} describing the limit.
+		 * @throws Throwable
+		 */
+		public default void onProcessLimitHit(CommandContext context, ProcessLimitException exception)
+				throws Throwable {} // NOSONAR
+
+		/**
+		 * Determines when this listener runs relative to others. Listeners with lower
+		 * values run first, and since the first rejection stops the pipeline, this should
+		 * be used as a cost hint: cheap in-memory checks should return negative values and
+		 * expensive ones (for example database-backed) positive values. Listeners with the
+		 * same priority run in the order they were registered in. This is read once, on
+		 * registration.
+		 *
+		 * @return The priority of this listener.
+		 */
+		public default int getPriority() {
+			return 0;
+		}
+
+	}
+
+	/**
+	 * A snapshot of a {@link CommandListener}'s statistics.
+	 *
+	 * @author Marko Zajc
+	 */
+	public static class ListenerStatistics {
+
+		private final CommandListener listener;
+		private final int priority;
+		private final long invocations;
+		private final long rejections;
+		private final long failures;
+		private final long totalNanos;
+
+		ListenerStatistics(CommandListener listener, int priority, long invocations, long rejections, long failures,
+				long totalNanos) {
+			this.listener = listener;
+			this.priority = priority;
+			this.invocations = invocations;
+			this.rejections = rejections;
+			this.failures = failures;
+			this.totalNanos = totalNanos;
+		}
+
+		/**
+		 * @return The {@link CommandListener}.
+		 */
+		@Nonnull
+		public CommandListener getListener() {
+			return this.listener;
+		}
+
+		/**
+		 * @return The priority the listener was registered with.
+		 */
+		public int getPriority() {
+			return this.priority;
+		}
+
+		/**
+		 * @return The number of times the listener was asked whether a command can be
+		 *         executed.
+		 */
+		public long getInvocations() {
+			return this.invocations;
+		}
+
+		/**
+		 * @return The number of times the listener has rejected a command (not counting
+		 *         failures).
+		 */
+		public long getRejections() {
+			return this.rejections;
+		}
+
+		/**
+		 * @return The number of times the listener has thrown.
+		 */
+		public long getFailures() {
+			return this.failures;
+		}
+
+		/**
+		 * @return The total time spent in the listener, in nanoseconds.
+		 */
+		public long getTotalNanos() {
+			return this.totalNanos;
+		}
+
+		/**
+		 * @return The average time spent in the listener, in nanoseconds.
+		 */
+		public long getAverageNanos() {
+			return this.invocations == 0 ? 0 : this.totalNanos / this.invocations;
+		}
+
+	}
+
+	private static final class Registration {
+
+		final CommandListener listener;
+		final int priority;
+		final boolean async;
+		final LongAdder invocations = new LongAdder();
+		final LongAdder rejections = new LongAdder();
+		final LongAdder failures = new LongAdder();
+		final LongAdder totalNanos = new LongAdder();
+
+		Registration(CommandListener listener) {
+			this.listener = listener;
+			this.priority = listener.getPriority();
+			this.async = overridesAsync(listener);
+		}
+
+		private static boolean overridesAsync(CommandListener listener) {
+			try {
+				return !listener.getClass().getMethod("canExecuteCommandAsync", CommandContext.class).isDefault();
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+
+		CompletableFuture<Boolean> canExecuteCommand(CommandContext context) {
+			long start = System.nanoTime();
+			CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+			CompletionStage<Boolean> stage;
+			try {
+				stage = this.listener.canExecuteCommandAsync(context);
+			} catch (Throwable e) { // NOSONAR
+				stage = null;
+				record(start, null, e, result);
+			}
+
+			if (stage != null)
+				stage.whenComplete((eligible, e) -> record(start, eligible, e, result));
+			// Completes immediately (on this thread) for synchronous listeners
+
+			return result;
+		}
+
+		private void record(long start, Boolean eligible, Throwable e, CompletableFuture<Boolean> result) {
+			this.totalNanos.add(System.nanoTime() - start);
+			this.invocations.increment();
+
+			if (e != null) {
+				LOG.error("Caught exception in a command listener", e);
+				this.failures.increment();
+				result.complete(Boolean.FALSE);
+
+			} else if (!Boolean.TRUE.equals(eligible)) {
+				this.rejections.increment();
+				result.complete(Boolean.FALSE);
+
+			} else {
+				result.complete(Boolean.TRUE);
+			}
+		}
+
+		ListenerStatistics snapshot() {
+			return new ListenerStatistics(this.listener, this.priority, this.invocations.sum(),
+					this.rejections.sum(), this.failures.sum(), this.totalNanos.sum());
+		}
+
 	}
 
 	/**
@@ -66,30 +289,101 @@ public class CommandHandler {
 	 * @return Whether or not the {@link Command} should be executed.
 	 */
 	public boolean canExecuteCommand(CommandContext context) {
-		return this.commandListeners.stream().map(listener -> {
+		return runListeners(this.commandListeners, 0, context, null, false).join().booleanValue();
+		// Runs synchronous listeners on this thread and blocks only if a listener is
+		// actually asynchronous
+	}
+
+	/**
+	 * Lets the {@link CommandListener}s determine whether a {@link Command} is eligible
+	 * for execution or not, without blocking. Listeners run one after another, each
+	 * only after the previous one has passed the command. Synchronous listeners are
+	 * run on the {@link com.github.markozajc.lithium.processes.ProcessManager}'s gate
+	 * executor (see
+	 * {@link com.github.markozajc.lithium.processes.ProcessManager#getGateExecutor()}),
+	 * so they neither block the event thread nor take slots of the lanes' executors.
+	 *
+	 * @param context
+	 *            The {@link CommandContext} to check.
+	 * @return A {@link CompletionStage} completing with whether or not the
+	 *         {@link Command} should be executed. It never completes exceptionally.
+	 */
+	@Nonnull
+	public CompletionStage<Boolean> canExecuteCommandAsync(CommandContext context) {
+		return runListeners(this.commandListeners, 0, context,
+			context.getLithium().getProcessManager().getGateExecutor(), false);
+	}
+
+	private static CompletableFuture<Boolean> runListeners(Registration[] listeners, int from,
+			CommandContext context, @Nullable Executor executor, boolean onExecutor) {
+		for (int i = from; i < listeners.length; i++) {
+			if (executor != null && !onExecutor && !listeners[i].async)
+				return runOn(executor, listeners, i, context);
+			// Moves to the executor for synchronous listeners, which may block. The rest of
+			// the pipeline then runs there until an asynchronous listener suspends it
+
+			CompletableFuture<Boolean> eligible = listeners[i].canExecuteCommand(context);
+			if (!eligible.isDone()) {
+				int next = i + 1;
+				return eligible.thenCompose(
+					e -> e.booleanValue() ? runListeners(listeners, next, context, executor, false)
+							: CompletableFuture.completedFuture(Boolean.FALSE));
+			}
+			// Only chains on listeners that are actually asynchronous, synchronous ones are
+			// run in this loop
+
+			if (!eligible.join().booleanValue())
+				return CompletableFuture.completedFuture(Boolean.FALSE);
+			// Stops at the first rejection, skipping the (more expensive) listeners after it
+		}
+
+		return CompletableFuture.completedFuture(Boolean.TRUE);
+	}
+
+	private static CompletableFuture<Boolean> runOn(Executor executor, Registration[] listeners, int from,
+			CommandContext context) {
+		try {
+			return CompletableFuture.supplyAsync(() -> runListeners(listeners, from, context, executor, true), executor)
+					.thenCompose(e -> e);
+		} catch (RejectedExecutionException e) {
+			LOG.debug("Could not run command listeners, the gate executor has rejected them.");
+			return CompletableFuture.completedFuture(Boolean.FALSE);
+		}
+	}
+
+	/**
+	 * Lets the {@link CommandListener}s know that a {@link Command} has finished.
+	 *
+	 * @param context
+	 *            The {@link CommandContext} with the {@link Command} in question.
+	 */
+	public void runOnCommandFinished(CommandContext context) {
+		for (Registration registration : this.commandListeners) {
 			try {
-				return listener.canExecuteCommand(context);
+				registration.listener.onCommandFinished(context);
 			} catch (Throwable e) {
 				LOG.error("Caught exception in a command listener", e);
-				return false;
 			}
-		}).allMatch(r -> r);
+		}
 	}
 
 	/**
-	 * Lets the {@link CommandListener}s know that a {@link Command} has finished.
+	 * Lets the {@link CommandListener}s know that a {@link Command} has been rejected
+	 * because of a process limit.
 	 *
 	 * @param context
 	 *            The {@link CommandContext} with the {@link Command} in question.
+	 * @param exception
+	 *            The {@link ProcessLimitException} describing the limit.
 	 */
-	public void runOnCommandFinished(CommandContext context) {
-		this.commandListeners.forEach(listener -> {
+	public void runOnProcessLimitHit(CommandContext context, ProcessLimitException exception) {
+		for (Registration registration : this.commandListeners) {
 			try {
-				listener.onCommandFinished(context);
+				registration.listener.onProcessLimitHit(context, exception);
 			} catch (Throwable e) {
 				LOG.error("Caught exception in a command listener", e);
 			}
-		});
+		}
 	}
 
 	/**
@@ -98,8 +392,25 @@ public class CommandHandler {
 	 * @param listener
 	 *            The {@link CommandListener} to register.
 	 */
-	public void registerListener(CommandListener listener) {
-		this.commandListeners.add(listener);
+	public synchronized void registerListener(CommandListener listener) {
+		Registration[] current = this.commandListeners;
+		for (Registration registration : current) {
+			if (registration.listener.equals(listener))
+				return;
+		}
+		// Registering a listener twice has no effect
+
+		Registration registration = new Registration(listener);
+		int index = current.length;
+		while (index > 0 && current[index - 1].priority > registration.priority)
+			index--;
+		// Inserts after all listeners with the same priority, keeping the sort stable
+
+		Registration[] updated = new Registration[current.length + 1];
+		System.arraycopy(current, 0, updated, 0, index);
+		updated[index] = registration;
+		System.arraycopy(current, index, updated, index + 1, current.length - index);
+		this.commandListeners = updated;
 	}
 
 	/**
@@ -108,7 +419,30 @@ public class CommandHandler {
 	 * @param listener
 	 *            The {@link CommandListener} to unregister.
 	 */
-	public void removeListener(CommandListener listener) {
-		this.commandListeners.remove(listener);
+	public synchronized void removeListener(CommandListener listener) {
+		Registration[] current = this.commandListeners;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i].listener.equals(listener)) {
+				Registration[] updated = new Registration[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+				this.commandListeners = updated;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return Statistics of all registered {@link CommandListener}s, in the order they
+	 *         run in.
+	 */
+	@Nonnull
+	public List<ListenerStatistics> getListenerStatistics() {
+		Registration[] current = this.commandListeners;
+		List<ListenerStatistics> statistics = new ArrayList<>(current.length);
+		for (Registration registration : current)
+			statistics.add(registration.snapshot());
+
+		return Collections.unmodifiableList(statistics);
 	}
 }
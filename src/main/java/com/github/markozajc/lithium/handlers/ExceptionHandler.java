@@ -272,9 +272,8 @@ public class ExceptionHandler {
 
 							if (context.getChannel().canTalk())
 								context.getChannel()
-										.sendMessage(BotUtils.buildEmbed("// USAGE INCORRECT //", "Correct usage: `"
-												+ context.getCommand().getUnescapedUsage(context.getLithium()) + "`.",
-											Constants.YELLOW))
+										.sendMessage(BotUtils.buildEmbed("// USAGE INCORRECT //",
+											"Correct usage: `" + getUsage(context) + "`.", Constants.YELLOW))
 										.queue();
 
 							return true;
@@ -287,12 +286,15 @@ public class ExceptionHandler {
 								context.getChannel()
 										.sendMessage(BotUtils.buildEmbed("// USAGE INCORRECT //",
 											"You've provided too little parameters!\nCorrect usage: `"
-													+ context.getCommand().getUnescapedUsage(context.getLithium())
-													+ "`.",
+													+ getUsage(context) + "`.",
 											Constants.YELLOW))
 										.queue();
 						}
 
+						private static String getUsage(CommandContext context) {
+							return context.getCommand().getUnescapedUsage(context.getLithium(), context.getGuildId());
+						}
+
 					}
 				}
 
@@ -0,0 +1,98 @@
+package com.github.markozajc.lithium.handlers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.markozajc.lithium.Constants;
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
+import com.github.markozajc.lithium.utilities.BotUtils;
+import com.github.markozajc.lithium.utilities.Cooldowns;
+
+import net.dv8tion.jda.core.events.message.guild.GuildMessageReceivedEvent;
+
+/**
+ * An optional handler called when a message starts with a prefix, but doesn't name
+ * any {@link Command}. By default it replies with the closest matching commands (see
+ * {@link CommandList#suggest(String, int, int)}), if there are any, at most once per
+ * user in a configurable period.
+ *
+ * @author Marko Zajc
+ */
+public class UnknownCommandHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(UnknownCommandHandler.class);
+
+	private final int maxDistance;
+	private final int limit;
+	private final Cooldowns cooldowns;
+
+	/**
+	 * Creates a new {@link UnknownCommandHandler} suggesting up to 3 commands within 2
+	 * edits, at most once per user every 10 seconds.
+	 */
+	public UnknownCommandHandler() {
+		this(2, 3, 10, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Creates a new {@link UnknownCommandHandler}.
+	 *
+	 * @param maxDistance
+	 *            The maximum edit distance of a suggestion.
+	 * @param limit
+	 *            The maximum number of suggestions.
+	 * @param cooldown
+	 *            The minimum time between two replies to the same user.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code cooldown}.
+	 */
+	public UnknownCommandHandler(@Nonnegative int maxDistance, @Nonnegative int limit, long cooldown,
+			@Nonnull TimeUnit unit) {
+		this.maxDistance = maxDistance;
+		this.limit = limit;
+		this.cooldowns = new Cooldowns(cooldown, unit);
+	}
+
+	/**
+	 * Handles a message naming an unknown command. This is called on the event thread,
+	 * so it must not block.
+	 *
+	 * @param event
+	 *            The message's event.
+	 * @param commands
+	 *            The current {@link CommandList}.
+	 * @param prefix
+	 *            The prefix the message started with.
+	 * @param name
+	 *            The unknown name.
+	 */
+	public void onUnknownCommand(@Nonnull GuildMessageReceivedEvent event, @Nonnull CommandList commands,
+			@Nonnull String prefix, @Nonnull String name) {
+		if (!event.getChannel().canTalk())
+			return;
+
+		List<Command> suggestions = commands.suggest(name, this.maxDistance, this.limit);
+		if (suggestions.isEmpty() || !this.cooldowns.tryAcquire(event.getAuthor().getIdLong()))
+			return;
+		// Only a reply starts the cooldown, so a typo without suggestions doesn't suppress
+		// the suggestions for the next one
+
+		LOG.debug("Suggesting {} for unknown command {}.", suggestions.size(), name);
+		event.getChannel()
+				.sendMessage(BotUtils.buildEmbed("// UNKNOWN COMMAND //",
+					"Did you mean " + suggestions.stream()
+							.map(c -> "`" + prefix + commands.getFullName(c) + "`")
+							.collect(Collectors.joining(", ")) + "?",
+					Constants.YELLOW))
+				.queue();
+	}
+
+}
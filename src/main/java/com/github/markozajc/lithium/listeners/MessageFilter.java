@@ -0,0 +1,347 @@
+package com.github.markozajc.lithium.listeners;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.markozajc.lithium.data.providers.impl.PrefixProvider;
+import com.github.markozajc.lithium.utilities.PrefixMatcher;
+import com.github.markozajc.lithium.utilities.SnowflakeMap;
+
+import net.dv8tion.jda.core.entities.User;
+import net.dv8tion.jda.core.events.message.guild.GuildMessageReceivedEvent;
+
+/**
+ * The first stage of {@link MessageListener}, run before a message is parsed. It
+ * rejects, in this order, messages sent by bots, by blocked users or in blocked
+ * guilds, messages that can't start with any of the guild's prefixes and messages
+ * sent by users that are flooding the bot. All checks are lock-free unless a user is
+ * seen for the first time. The number of messages each {@link Rule} has rejected is
+ * counted.
+ * <p>
+ * Flood detection is disabled by default, see
+ * {@link #setFloodLimit(int, long, long, TimeUnit)}.
+ *
+ * @author Marko Zajc
+ */
+public class MessageFilter {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MessageFilter.class);
+
+	private static final int MAX_COUNT = 0xFFFF;
+	private static final int PRUNE_INTERVAL = 4096;
+
+	/**
+	 * The rules messages can be rejected by.
+	 *
+	 * @author Marko Zajc
+	 */
+	public enum Rule {
+		/**
+		 * The author is a bot.
+		 */
+		BOT,
+		/**
+		 * The author is blocked.
+		 */
+		BLOCKED_USER,
+		/**
+		 * The guild is blocked.
+		 */
+		BLOCKED_GUILD,
+		/**
+		 * The message can't start with any of the guild's prefixes.
+		 */
+		NO_PREFIX,
+		/**
+		 * The author has exceeded the flood limit with this message.
+		 */
+		FLOOD,
+		/**
+		 * The author is being ignored for exceeding the flood limit earlier.
+		 */
+		IGNORED
+	}
+
+	private final PrefixProvider prefixProvider;
+	private final SnowflakeMap<Boolean> blockedUsers = new SnowflakeMap<>();
+	private final SnowflakeMap<Boolean> blockedGuilds = new SnowflakeMap<>();
+	private final SnowflakeMap<Sender> senders = new SnowflakeMap<>();
+	private final AtomicInteger newSenders = new AtomicInteger();
+	private final LongAdder[] rejected = new LongAdder[Rule.values().length];
+	private final LongAdder accepted = new LongAdder();
+	@Nullable
+	private volatile FloodLimit floodLimit;
+
+	/**
+	 * Creates a new {@link MessageFilter}.
+	 *
+	 * @param prefixProvider
+	 *            The {@link PrefixProvider} to resolve guilds' prefixes with.
+	 */
+	public MessageFilter(@Nonnull PrefixProvider prefixProvider) {
+		this.prefixProvider = prefixProvider;
+		for (int i = 0; i < this.rejected.length; i++)
+			this.rejected[i] = new LongAdder();
+	}
+
+	/**
+	 * Filters a message.
+	 *
+	 * @param event
+	 *            The message's event.
+	 * @return The guild's {@link PrefixMatcher} if the message has passed all rules or
+	 *         {@code null} if it was rejected.
+	 */
+	@Nullable
+	public PrefixMatcher accept(@Nonnull GuildMessageReceivedEvent event) {
+		User author = event.getAuthor();
+		if (author.isBot())
+			return reject(Rule.BOT);
+
+		long userId = author.getIdLong();
+		if (this.blockedUsers.containsKey(userId))
+			return reject(Rule.BLOCKED_USER);
+
+		long guildId = event.getGuild().getIdLong();
+		if (this.blockedGuilds.containsKey(guildId))
+			return reject(Rule.BLOCKED_GUILD);
+
+		PrefixMatcher prefixes = this.prefixProvider.getMatcher(guildId, event.getJDA().getSelfUser().getIdLong());
+		String content = event.getMessage().getContentRaw();
+		if (content.isEmpty() || !prefixes.canStartWith(content.charAt(0)))
+			return reject(Rule.NO_PREFIX);
+		// Rejects most of the traffic by looking at a single character
+
+		FloodLimit limit = this.floodLimit;
+		if (limit != null) {
+			Rule rule = checkFlood(userId, limit);
+			if (rule != null)
+				return reject(rule);
+		}
+		// Only counts messages that might be commands, so chatting never gets anyone ignored
+
+		this.accepted.increment();
+		return prefixes;
+	}
+
+	@Nullable
+	private PrefixMatcher reject(Rule rule) {
+		this.rejected[rule.ordinal()].increment();
+		return null;
+	}
+
+	@Nullable
+	private Rule checkFlood(long userId, FloodLimit limit) {
+		long now = System.currentTimeMillis();
+
+		Sender sender = this.senders.get(userId);
+		if (sender == null) {
+			sender = this.senders.computeIfAbsent(userId, id -> new Sender());
+			if (this.newSenders.incrementAndGet() % PRUNE_INTERVAL == 0)
+				prune(now, limit);
+		}
+
+		if (sender.ignoredUntil > now)
+			return Rule.IGNORED;
+
+		if (sender.record(now, limit.windowMillis) <= limit.messages)
+			return null;
+
+		sender.ignoredUntil = now + limit.ignoreMillis;
+		LOG.info("User {} has exceeded the flood limit, ignoring them for {} ms.", userId, limit.ignoreMillis);
+		return Rule.FLOOD;
+	}
+
+	private void prune(long now, FloodLimit limit) {
+		int window = (int) (now / limit.windowMillis);
+		for (long userId : this.senders.keys()) {
+			Sender sender = this.senders.get(userId);
+			if (sender != null && sender.ignoredUntil <= now && window - sender.getWindow() > 1)
+				this.senders.remove(userId);
+		}
+		// Drops senders that no longer affect the rate. A concurrent message from a dropped
+		// sender may go uncounted, which only errs on the lenient side
+	}
+
+	/**
+	 * Enables flood detection. Message rate is tracked over a sliding window, per user,
+	 * and only for messages that passed all other rules.
+	 *
+	 * @param messages
+	 *            The maximum number of messages a user may send per window.
+	 * @param window
+	 *            The length of the window.
+	 * @param ignore
+	 *            How long to ignore users that exceed the limit for.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code window} and {@code ignore}.
+	 */
+	public void setFloodLimit(@Nonnegative int messages, long window, long ignore, @Nonnull TimeUnit unit) {
+		if (messages < 1 || messages >= MAX_COUNT)
+			throw new IllegalArgumentException("The message limit must be between 1 and " + (MAX_COUNT - 1) + ".");
+
+		if (unit.toMillis(window) < 1)
+			throw new IllegalArgumentException("The window must be at least a millisecond long.");
+
+		this.floodLimit = new FloodLimit(messages, unit.toMillis(window), unit.toMillis(ignore));
+	}
+
+	/**
+	 * Disables flood detection and forgets all tracked users.
+	 */
+	public void disableFloodLimit() {
+		this.floodLimit = null;
+		this.senders.clear();
+	}
+
+	/**
+	 * Blocks a user. Messages sent by blocked users are rejected.
+	 *
+	 * @param userId
+	 *            The user's ID.
+	 */
+	public void blockUser(long userId) {
+		this.blockedUsers.put(userId, Boolean.TRUE);
+	}
+
+	/**
+	 * Unblocks a user.
+	 *
+	 * @param userId
+	 *            The user's ID.
+	 */
+	public void unblockUser(long userId) {
+		this.blockedUsers.remove(userId);
+	}
+
+	/**
+	 * @param userId
+	 *            The user's ID.
+	 * @return Whether the user is blocked.
+	 */
+	public boolean isUserBlocked(long userId) {
+		return this.blockedUsers.containsKey(userId);
+	}
+
+	/**
+	 * Blocks a guild. Messages sent in blocked guilds are rejected.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 */
+	public void blockGuild(long guildId) {
+		this.blockedGuilds.put(guildId, Boolean.TRUE);
+	}
+
+	/**
+	 * Unblocks a guild.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 */
+	public void unblockGuild(long guildId) {
+		this.blockedGuilds.remove(guildId);
+	}
+
+	/**
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return Whether the guild is blocked.
+	 */
+	public boolean isGuildBlocked(long guildId) {
+		return this.blockedGuilds.containsKey(guildId);
+	}
+
+	/**
+	 * Stops ignoring a user that has exceeded the flood limit.
+	 *
+	 * @param userId
+	 *            The user's ID.
+	 */
+	public void pardon(long userId) {
+		this.senders.remove(userId);
+	}
+
+	/**
+	 * @param rule
+	 *            The {@link Rule}.
+	 * @return The number of messages that {@link Rule} has rejected.
+	 */
+	public long getRejected(@Nonnull Rule rule) {
+		return this.rejected[rule.ordinal()].sum();
+	}
+
+	/**
+	 * @return The number of messages that have passed all rules.
+	 */
+	public long getAccepted() {
+		return this.accepted.sum();
+	}
+
+	private static final class FloodLimit {
+
+		final int messages;
+		final long windowMillis;
+		final long ignoreMillis;
+
+		FloodLimit(int messages, long windowMillis, long ignoreMillis) {
+			this.messages = messages;
+			this.windowMillis = windowMillis;
+			this.ignoreMillis = ignoreMillis;
+		}
+
+	}
+
+	private static final class Sender {
+
+		/**
+		 * Packs the window's index (upper 32 bits), the previous window's count (next 16
+		 * bits) and the current window's count (lower 16 bits), so the counter can be
+		 * updated with a single CAS.
+		 */
+		private final AtomicLong state = new AtomicLong();
+		volatile long ignoredUntil;
+
+		/**
+		 * Records a message and estimates the rate over the last {@code windowMillis},
+		 * weighting the previous window's count by how much of it still overlaps.
+		 */
+		int record(long now, long windowMillis) {
+			int window = (int) (now / windowMillis);
+			while (true) {
+				long current = this.state.get();
+				int previousCount = (int) (current >>> 16) & MAX_COUNT;
+				int count = (int) current & MAX_COUNT;
+				int currentWindow = (int) (current >>> 32);
+
+				if (currentWindow != window) {
+					previousCount = currentWindow == window - 1 ? count : 0;
+					count = 0;
+				}
+				// Rolls the window over
+
+				count = Math.min(count + 1, MAX_COUNT);
+				long updated = (long) window << 32 | (long) previousCount << 16 | count;
+				if (this.state.compareAndSet(current, updated)) {
+					long overlap = windowMillis - now % windowMillis;
+					return (int) (previousCount * overlap / windowMillis) + count;
+				}
+			}
+		}
+
+		int getWindow() {
+			return (int) (this.state.get() >>> 32);
+		}
+
+	}
+
+}
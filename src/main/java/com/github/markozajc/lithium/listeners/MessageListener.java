@@ -6,9 +6,13 @@ import org.slf4j.LoggerFactory;
 import com.github.markozajc.lithium.Constants;
 import com.github.markozajc.lithium.Lithium;
 import com.github.markozajc.lithium.commands.Command;
-import com.github.markozajc.lithium.commands.utils.Parameters;
+import com.github.markozajc.lithium.commands.CommandList;
+import com.github.markozajc.lithium.commands.utils.ParsedInvocation;
+import com.github.markozajc.lithium.commands.utils.Tokenizer;
+import com.github.markozajc.lithium.handlers.UnknownCommandHandler;
 import com.github.markozajc.lithium.processes.CommandProcess;
 import com.github.markozajc.lithium.processes.context.CommandContext;
+import com.github.markozajc.lithium.utilities.PrefixMatcher;
 import com.github.markozajc.lithium.utilities.dialogs.message.EmbedDialog;
 import com.github.markozajc.lithium.utilities.dialogs.message.prepared.PreparedDialog;
 import com.github.markozajc.lithium.utilities.dialogs.message.prepared.PreparedEmbedDialog;
@@ -25,14 +29,16 @@ public class MessageListener extends ListenerAdapter {
 
 	public MessageListener(Lithium lithium) {
 		this(lithium,
-				new PreparedEmbedDialog<>(e -> EmbedDialog.generateEmbed(
-					"Thanks for choosing " + lithium.getConfiguration().getName(),
-					"To get started, type in `" + lithium.getConfiguration().getDefaultPrefix() + "help` or `@"
-							+ e.getGuild().getSelfMember().getEffectiveName() + " help` to receive a list of commands. "
-							+ "If you're still unsure about what which command does, you can type in `"
-							+ lithium.getConfiguration().getDefaultPrefix() + "help <command's name>`"
-							+ "to get information about a command!",
-					Constants.LITHIUM, e.getAuthor())));
+				new PreparedEmbedDialog<>(e -> {
+					String prefix = lithium.getPrefixProvider().getEffectivePrefix(e.getGuild().getIdLong());
+					return EmbedDialog.generateEmbed("Thanks for choosing " + lithium.getConfiguration().getName(),
+						"To get started, type in `" + prefix + "help` or `@"
+								+ e.getGuild().getSelfMember().getEffectiveName()
+								+ " help` to receive a list of commands. "
+								+ "If you're still unsure about what which command does, you can type in `" + prefix
+								+ "help <command's name>`" + "to get information about a command!",
+						Constants.LITHIUM, e.getAuthor());
+				}));
 	}
 
 	public MessageListener(Lithium lithium, PreparedDialog<GuildMessageReceivedEvent> mentionDialog) {
@@ -42,50 +48,61 @@ public class MessageListener extends ListenerAdapter {
 
 	@Override
 	public void onGuildMessageReceived(GuildMessageReceivedEvent event) {
-		if (event.getAuthor().isBot())
+		if (this.lithium.isShuttingDown())
 			return;
-		// Checks if sender is a bot
+		// Doesn't start anything new while processes are being drained
+
+		PrefixMatcher prefixes = this.lithium.getMessageFilter().accept(event);
+		if (prefixes == null)
+			return;
+		// Drops bots, blocked senders, flooders and messages that can't be commands before
+		// parsing anything
+
+		String content = event.getMessage().getContentRaw();
+		int prefix = prefixes.match(content);
+		if (prefix < 0)
+			return;
+		// Ignores everything that doesn't start with a prefix or a mention
+
+		int prefixLength = prefixes.getPrefix(prefix).length();
+		int nameStart = Tokenizer.skipSeparators(content, prefixLength);
+		if (nameStart == content.length()) {
+			if (PrefixMatcher.isMention(prefix))
+				this.mentionDialog.generate(event).display(event.getChannel());
+			// Displays 'mention dialog' if the bot is mentioned
 
-		if (event.getMessage().getContentRaw().equals(event.getJDA().getSelfUser().getAsMention())) {
-			this.mentionDialog.generate(event).display(event.getChannel());
 			return;
 		}
-		// Displays 'mention dialog' if the bot is mentioned
-
-		String selfMention = event.getGuild().getSelfMember().getAsMention();
-		if (event.getMessage().getContentRaw().startsWith(this.lithium.getConfiguration().getDefaultPrefix())
-				|| event.getMessage().getContentRaw().startsWith(selfMention)) {
-			int substring = 0;
-			if (event.getMessage().getContentRaw().startsWith(selfMention)) {
-				substring = selfMention.length();
-
-			} else if (event.getMessage()
-					.getContentRaw()
-					.startsWith(this.lithium.getConfiguration().getDefaultPrefix())) {
-				substring = this.lithium.getConfiguration().getDefaultPrefix().length();
-			}
-
-			String commandName;
-			String[] parameters = Parameters.formatParams(
-				event.getMessage().getContentRaw().toLowerCase().substring(substring).trim(), 0, false, false);
-			if (parameters.length < 1)
-				return;
-			commandName = parameters[0];
-
-			LOG.debug("Requested execution of {}.", commandName);
-
-			Command command = this.lithium.getCommands().get(commandName);
-
-			if (command == null) {
-				LOG.debug("Command {} does not exist.", commandName);
-				return;
-			}
-
-			LOG.debug("Sumbitting command {} to the ProcessManager.", command.getName());
-			this.lithium.getProcessManager()
-					.submitProcess(new CommandProcess(new CommandContext(this.lithium, event, command)));
-			// Launches the command handler
+
+		CommandList commands = this.lithium.getCommands();
+		if (commands == null)
+			return;
+		// Commands are loaded during boot, after listeners are registered
+
+		int nameEnd = Tokenizer.findSeparator(content, nameStart);
+		Command command = commands.get(content, nameStart, nameEnd);
+
+		if (command == null) {
+			String name = content.substring(nameStart, nameEnd);
+			LOG.debug("Command {} does not exist.", name);
+
+			UnknownCommandHandler handler = this.lithium.getHandlers().getUnknownCommand();
+			if (handler != null && !PrefixMatcher.isMention(prefix))
+				handler.onUnknownCommand(event, commands, prefixes.getPrefix(prefix), name);
+			// Only suggests on prefixed calls, mentions are often just conversation
+
+			return;
 		}
+
+		ParsedInvocation invocation = new ParsedInvocation(content, prefixLength, nameStart, nameEnd);
+		command = commands.resolve(command, invocation);
+		invocation = invocation.withSubcommandDepth(commands.getDepth(command));
+		// Descends into subcommands in a single pass over the tokens
+
+		LOG.debug("Sumbitting command {} to the ProcessManager.", commands.getFullName(command));
+		new CommandProcess(new CommandContext(this.lithium, event, commands, command, invocation)).dispatch();
+		// Runs the command's gates off the event thread and submits it once they have
+		// passed
 	}
 
 }
@@ -0,0 +1,238 @@
+package com.github.markozajc.lithium.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
+
+/**
+ * Latency histograms and outcome counters of a single {@link Command} (or
+ * subcommand). All recording is lock-free.
+ *
+ * @author Marko Zajc
+ */
+public class CommandMetrics {
+
+	/**
+	 * The phases of a command's execution that are timed.
+	 *
+	 * @author Marko Zajc
+	 */
+	public enum Phase {
+		/**
+		 * The time between submitting the command to the executor and a worker picking it
+		 * up.
+		 */
+		QUEUE_WAIT,
+		/**
+		 * The time spent in command listeners and
+		 * {@link Command#startupCheck(com.github.markozajc.lithium.processes.context.CommandContext, com.github.markozajc.lithium.commands.utils.Parameters)}.
+		 */
+		GATES,
+		/**
+		 * The time spent creating (or binding) parameters.
+		 */
+		PARAMETERS,
+		/**
+		 * The time spent in the command's {@code execute} method.
+		 */
+		EXECUTION
+	}
+
+	/**
+	 * The possible outcomes of a command call.
+	 *
+	 * @author Marko Zajc
+	 */
+	public enum Outcome {
+		/**
+		 * The command has finished normally.
+		 */
+		SUCCESS,
+		/**
+		 * A command listener has rejected the command.
+		 */
+		REJECTED,
+		/**
+		 * The command was called with invalid parameters.
+		 */
+		USAGE_ERROR,
+		/**
+		 * The command was shed because the bot was overloaded.
+		 */
+		SHED,
+		/**
+		 * The command was cancelled because it ran past its deadline.
+		 */
+		TIMED_OUT,
+		/**
+		 * The command has thrown (see {@link Snapshot#getExceptions()}).
+		 */
+		EXCEPTION
+	}
+
+	private final int commandId;
+	private final Histogram[] phases = new Histogram[Phase.values().length];
+	private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+	private final ConcurrentHashMap<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+	CommandMetrics(int commandId) {
+		this.commandId = commandId;
+		for (int i = 0; i < this.phases.length; i++)
+			this.phases[i] = new Histogram();
+		for (int i = 0; i < this.outcomes.length; i++)
+			this.outcomes[i] = new LongAdder();
+	}
+
+	/**
+	 * Records the duration of a phase.
+	 *
+	 * @param phase
+	 *            The {@link Phase}.
+	 * @param nanos
+	 *            The duration in nanoseconds.
+	 */
+	public void recordPhase(@Nonnull Phase phase, long nanos) {
+		this.phases[phase.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Records an outcome other than {@link Outcome#EXCEPTION}.
+	 *
+	 * @param outcome
+	 *            The {@link Outcome}.
+	 */
+	public void recordOutcome(@Nonnull Outcome outcome) {
+		this.outcomes[outcome.ordinal()].increment();
+	}
+
+	/**
+	 * Records an {@link Outcome#EXCEPTION} outcome, also counting it by the
+	 * {@link Throwable}'s class.
+	 *
+	 * @param throwable
+	 *            The thrown {@link Throwable}.
+	 */
+	public void recordException(@Nonnull Throwable throwable) {
+		this.outcomes[Outcome.EXCEPTION.ordinal()].increment();
+		String type = throwable.getClass().getName();
+		LongAdder counter = this.exceptions.get(type);
+		if (counter == null)
+			counter = this.exceptions.computeIfAbsent(type, t -> new LongAdder());
+		counter.increment();
+	}
+
+	/**
+	 * @return The {@link CommandList#getId(Command)} these metrics belong to.
+	 */
+	public int getCommandId() {
+		return this.commandId;
+	}
+
+	/**
+	 * @return A snapshot of these metrics.
+	 */
+	@Nonnull
+	public Snapshot snapshot() {
+		return snapshot(false);
+	}
+
+	/**
+	 * Takes a snapshot and resets these metrics, so the next snapshot only covers the
+	 * following interval.
+	 *
+	 * @return A snapshot of the metrics since the last reset.
+	 */
+	@Nonnull
+	public Snapshot snapshotAndReset() {
+		return snapshot(true);
+	}
+
+	private Snapshot snapshot(boolean reset) {
+		Map<Phase, Histogram.Snapshot> phaseSnapshots = new EnumMap<>(Phase.class);
+		for (Phase phase : Phase.values()) {
+			Histogram histogram = this.phases[phase.ordinal()];
+			phaseSnapshots.put(phase, reset ? histogram.snapshotAndReset() : histogram.snapshot());
+		}
+
+		Map<Outcome, Long> outcomeSnapshots = new EnumMap<>(Outcome.class);
+		for (Outcome outcome : Outcome.values()) {
+			LongAdder counter = this.outcomes[outcome.ordinal()];
+			outcomeSnapshots.put(outcome, reset ? counter.sumThenReset() : counter.sum());
+		}
+
+		Map<String, Long> exceptionSnapshots = new HashMap<>();
+		this.exceptions.forEach((type, counter) -> {
+			long count = reset ? counter.sumThenReset() : counter.sum();
+			if (count != 0)
+				exceptionSnapshots.put(type, count);
+		});
+
+		return new Snapshot(this.commandId, phaseSnapshots, outcomeSnapshots, exceptionSnapshots);
+	}
+
+	/**
+	 * An immutable snapshot of {@link CommandMetrics}.
+	 *
+	 * @author Marko Zajc
+	 */
+	public static class Snapshot {
+
+		private final int commandId;
+		private final Map<Phase, Histogram.Snapshot> phases;
+		private final Map<Outcome, Long> outcomes;
+		private final Map<String, Long> exceptions;
+
+		Snapshot(int commandId, Map<Phase, Histogram.Snapshot> phases, Map<Outcome, Long> outcomes,
+				Map<String, Long> exceptions) {
+			this.commandId = commandId;
+			this.phases = Collections.unmodifiableMap(phases);
+			this.outcomes = Collections.unmodifiableMap(outcomes);
+			this.exceptions = Collections.unmodifiableMap(exceptions);
+		}
+
+		/**
+		 * @return The {@link CommandList#getId(Command)} this snapshot belongs to.
+		 */
+		public int getCommandId() {
+			return this.commandId;
+		}
+
+		/**
+		 * @param phase
+		 *            The {@link Phase}.
+		 * @return The durations of that phase, in nanoseconds.
+		 */
+		@Nonnull
+		public Histogram.Snapshot getPhase(@Nonnull Phase phase) {
+			return this.phases.get(phase);
+		}
+
+		/**
+		 * @param outcome
+		 *            The {@link Outcome}.
+		 * @return The number of calls with that outcome.
+		 */
+		public long getOutcome(@Nonnull Outcome outcome) {
+			return this.outcomes.get(outcome);
+		}
+
+		/**
+		 * @return The number of {@link Outcome#EXCEPTION} outcomes by the fully qualified
+		 *         name of the thrown {@link Throwable}'s class.
+		 */
+		@Nonnull
+		public Map<String, Long> getExceptions() {
+			return this.exceptions;
+		}
+
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.github.markozajc.lithium.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandList;
+import com.github.markozajc.lithium.utilities.SnowflakeMap;
+
+/**
+ * Holds {@link CommandMetrics} of all {@link Command}s, keyed by
+ * {@link CommandList#getId(Command)}. That ID is derived from the command's full
+ * name, so unlike the deprecated {@link Command#getId()} it tells apart subcommands
+ * of different commands that share a name. Lookups are lock-free; metrics are
+ * created the first time a command is called.
+ *
+ * @author Marko Zajc
+ */
+public class CommandMetricsRegistry {
+
+	private final SnowflakeMap<CommandMetrics> metrics = new SnowflakeMap<>();
+
+	/**
+	 * Retrieves (or creates) the {@link CommandMetrics} of a {@link Command}.
+	 *
+	 * @param commandId
+	 *            The {@link CommandList#getId(Command)}.
+	 * @return The {@link CommandMetrics}.
+	 */
+	@Nonnull
+	public CommandMetrics getOrCreate(int commandId) {
+		CommandMetrics commandMetrics = this.metrics.get(commandId);
+		if (commandMetrics == null)
+			commandMetrics = this.metrics.computeIfAbsent(commandId, k -> new CommandMetrics(commandId));
+
+		return commandMetrics;
+	}
+
+	/**
+	 * @param commandId
+	 *            The {@link CommandList#getId(Command)}.
+	 * @return The {@link CommandMetrics} or {@code null} if the command hasn't been
+	 *         called yet.
+	 */
+	@Nullable
+	public CommandMetrics get(int commandId) {
+		return this.metrics.get(commandId);
+	}
+
+	/**
+	 * @return Snapshots of all {@link CommandMetrics}, keyed by {@link CommandList#getId(Command)}.
+	 */
+	@Nonnull
+	public Map<Integer, CommandMetrics.Snapshot> snapshot() {
+		return snapshot(false);
+	}
+
+	/**
+	 * Takes snapshots of all {@link CommandMetrics} and resets them, so the next
+	 * snapshot only covers the following interval.
+	 *
+	 * @return Snapshots of all {@link CommandMetrics} since the last reset, keyed by
+	 *         {@link CommandList#getId(Command)}.
+	 */
+	@Nonnull
+	public Map<Integer, CommandMetrics.Snapshot> snapshotAndReset() {
+		return snapshot(true);
+	}
+
+	private Map<Integer, CommandMetrics.Snapshot> snapshot(boolean reset) {
+		Map<Integer, CommandMetrics.Snapshot> snapshots = new HashMap<>();
+		for (long id : this.metrics.keys()) {
+			CommandMetrics commandMetrics = this.metrics.get(id);
+			if (commandMetrics != null)
+				snapshots.put((int) id,
+					reset ? commandMetrics.snapshotAndReset() : commandMetrics.snapshot());
+		}
+
+		return Collections.unmodifiableMap(snapshots);
+	}
+
+}
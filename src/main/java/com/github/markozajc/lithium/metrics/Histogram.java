@@ -0,0 +1,188 @@
+package com.github.markozajc.lithium.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * A lock-free, fixed-size histogram of non-negative {@code long}s (usually durations
+ * in nanoseconds). Values are counted in log-linear buckets: every power of two is
+ * split into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is known
+ * to within about 6% while the whole range of {@code long} takes under a thousand
+ * counters. Recording is a single atomic increment and never allocates.
+ *
+ * @author Marko Zajc
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	/**
+	 * The number of linear sub-buckets every power of two is split into.
+	 */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value. Negative values are recorded as {@code 0}.
+	 *
+	 * @param value
+	 *            The value to record.
+	 */
+	public void record(long value) {
+		long clamped = Math.max(value, 0);
+		this.counts.incrementAndGet(indexOf(clamped));
+		this.sum.add(clamped);
+
+		long currentMax;
+		while (clamped > (currentMax = this.max.get()) && !this.max.compareAndSet(currentMax, clamped)) {
+			// Retries until the maximum is at least this value
+		}
+	}
+
+	/**
+	 * @return A snapshot of the recorded values.
+	 */
+	@Nonnull
+	public Snapshot snapshot() {
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			snapshot[i] = this.counts.get(i);
+
+		return new Snapshot(snapshot, this.sum.sum(), this.max.get());
+	}
+
+	/**
+	 * Takes a snapshot and resets this {@link Histogram}, so the next snapshot only
+	 * covers values recorded after this call. Values recorded concurrently with this
+	 * call end up in exactly one of the two snapshots, though the sum and the maximum
+	 * may be attributed to the other one.
+	 *
+	 * @return A snapshot of the values recorded since the last reset.
+	 */
+	@Nonnull
+	public Snapshot snapshotAndReset() {
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			snapshot[i] = this.counts.getAndSet(i, 0);
+
+		return new Snapshot(snapshot, this.sum.sumThenReset(), this.max.getAndSet(0));
+	}
+
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	static long upperBoundOf(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+
+		int shift = index / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lower + ((1L << shift) - 1);
+	}
+
+	/**
+	 * An immutable snapshot of a {@link Histogram}.
+	 *
+	 * @author Marko Zajc
+	 */
+	public static class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		Snapshot(long[] counts, long sum, long max) {
+			this.counts = counts;
+			long total = 0;
+			for (long bucket : counts)
+				total += bucket;
+			this.count = total;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * @return The number of recorded values.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * @return The sum of all recorded values.
+		 */
+		public long getSum() {
+			return this.sum;
+		}
+
+		/**
+		 * @return The largest recorded value or {@code 0} if there are none.
+		 */
+		public long getMax() {
+			return this.max;
+		}
+
+		/**
+		 * @return The mean of the recorded values or {@code 0} if there are none.
+		 */
+		public double getMean() {
+			return this.count == 0 ? 0 : (double) this.sum / this.count;
+		}
+
+		/**
+		 * Estimates a percentile. The result is the upper bound of the bucket the
+		 * percentile falls into (but never more than {@link #getMax()}), so it is never
+		 * lower than the exact value.
+		 *
+		 * @param percentile
+		 *            The percentile, between {@code 0} and {@code 100}.
+		 * @return The estimated value or {@code 0} if there are no recorded values.
+		 */
+		public long getPercentile(@Nonnegative double percentile) {
+			if (this.count == 0)
+				return 0;
+
+			long rank = Math.max(1, (long) Math.ceil(this.count * Math.min(percentile, 100) / 100));
+			long seen = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+				if (seen >= rank)
+					return Math.min(upperBoundOf(i), this.max);
+			}
+
+			return this.max;
+		}
+
+		/**
+		 * Combines this snapshot with another one, for example to aggregate several
+		 * intervals.
+		 *
+		 * @param other
+		 *            The other snapshot.
+		 * @return A new snapshot containing values of both.
+		 */
+		@Nonnull
+		public Snapshot merge(@Nonnull Snapshot other) {
+			long[] merged = new long[this.counts.length];
+			for (int i = 0; i < merged.length; i++)
+				merged[i] = this.counts[i] + other.counts[i];
+
+			return new Snapshot(merged, this.sum + other.sum, Math.max(this.max, other.max));
+		}
+
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.concurrent.Callable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link LithiumProcess} forked by another process through a {@link ProcessScope}.
+ * It shares its parent's
+ * {@link com.github.markozajc.lithium.processes.context.ProcessContext} (and with it
+ * the user, guild and deadline), so it's counted for the same user and guild, but is
+ * never limited and doesn't count towards the process limits.
+ *
+ * @author Marko Zajc
+ *
+ * @param <T>
+ *            The result type.
+ */
+public class ChildProcess<T> extends LithiumProcess<T> {
+
+	private final LithiumProcess<?> parent;
+	private final Callable<? extends T> task;
+
+	ChildProcess(@Nonnull LithiumProcess<?> parent, @Nonnull Callable<? extends T> task) {
+		super(parent.getContext());
+		this.parent = parent;
+		this.task = task;
+	}
+
+	@Override
+	public T call() throws Exception {
+		return this.task.call();
+	}
+
+	@Override
+	public LithiumProcess<?> getParent() {
+		return this.parent;
+	}
+
+	@Override
+	public long getWatchdogThreshold() {
+		return this.parent.getWatchdogThreshold();
+	}
+
+}
@@ -1,53 +1,163 @@
 package com.github.markozajc.lithium.processes;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.TypedCommand;
+import com.github.markozajc.lithium.commands.binding.BindingResult;
+import com.github.markozajc.lithium.commands.binding.BoundParameters;
+import com.github.markozajc.lithium.commands.binding.ParameterBinder;
+import com.github.markozajc.lithium.commands.cache.Cacheable;
+import com.github.markozajc.lithium.commands.cache.ResultCache;
+import com.github.markozajc.lithium.commands.exceptions.startup.UsageException;
 import com.github.markozajc.lithium.commands.ratelimits.RatelimitsManager;
 import com.github.markozajc.lithium.commands.utils.Commands;
 import com.github.markozajc.lithium.commands.utils.Parameters;
+import com.github.markozajc.lithium.handlers.BusyHandler;
+import com.github.markozajc.lithium.handlers.CommandHandler.CommandListener;
+import com.github.markozajc.lithium.metrics.CommandMetrics;
+import com.github.markozajc.lithium.metrics.CommandMetrics.Outcome;
+import com.github.markozajc.lithium.metrics.CommandMetrics.Phase;
 import com.github.markozajc.lithium.processes.context.CommandContext;
 import com.github.markozajc.lithium.processes.context.ProcessContext;
+import com.github.markozajc.lithium.processes.limiter.ProcessLimitException;
+import com.github.markozajc.lithium.processes.limiter.ProcessShedException;
+
+import net.dv8tion.jda.core.entities.Message;
 
 public class CommandProcess extends LithiumProcess<Void> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CommandProcess.class);
 
+	private final long createdNanos = System.nanoTime();
+	private volatile boolean eligible;
+	private volatile long queuedNanos;
+	private volatile long gateNanos;
+
 	public CommandProcess(CommandContext context) {
 		super(context);
 	}
 
+	/**
+	 * Runs the {@link CommandListener}s asynchronously and submits this process to the
+	 * {@link ProcessManager} only once all of them have passed the command, so waiting
+	 * on asynchronous gates never occupies an executor slot. Synchronous gates run on
+	 * the executor, never on the calling (event) thread.
+	 *
+	 * @return A {@link CompletableFuture} completing when the command finishes or
+	 *         immediately after a listener rejects it.
+	 */
+	public CompletableFuture<Void> dispatch() {
+		LOG.debug("Querying command handler for command {}.", this.getContext().getCommandId());
+		long start = System.nanoTime();
+		return this.getContext()
+				.getLithium()
+				.getHandlers()
+				.getCommand()
+				.canExecuteCommandAsync(this.getContext())
+				.toCompletableFuture()
+				.thenCompose(e -> {
+					this.gateNanos = System.nanoTime() - start;
+					if (!e.booleanValue()) {
+						LOG.debug("Command {} not eligible.", this.getContext().getCommandId());
+						CommandMetrics metrics = getMetrics();
+						metrics.recordPhase(Phase.GATES, this.gateNanos);
+						metrics.recordOutcome(Outcome.REJECTED);
+						return CompletableFuture.completedFuture(null);
+					}
+
+					this.queuedNanos = System.nanoTime();
+					this.eligible = true;
+					CompletableFuture<Void> submitted = this.getContext()
+							.getLithium()
+							.getProcessManager()
+							.submitProcess(this);
+					if (submitted.isCompletedExceptionally())
+						submitted.whenComplete((v, t) -> onRejected(t));
+					return submitted;
+				});
+	}
+
+	private void onRejected(Throwable t) {
+		CommandMetrics metrics = getMetrics();
+		if (t instanceof ProcessShedException) {
+			metrics.recordOutcome(Outcome.SHED);
+			BusyHandler busy = this.getContext().getLithium().getHandlers().getBusy();
+			if (busy != null)
+				busy.onShed(this.getContext(), (ProcessShedException) t);
+
+		} else if (t instanceof ProcessLimitException) {
+			LOG.debug("Process limit reached, dropping command {}.", this.getContext().getCommandId());
+			metrics.recordOutcome(Outcome.REJECTED);
+			this.getContext()
+					.getLithium()
+					.getHandlers()
+					.getCommand()
+					.runOnProcessLimitHit(this.getContext(), (ProcessLimitException) t);
+
+		} else if (this.getContext().getLithium().isShuttingDown()) {
+			LOG.debug("Shutting down, dropping command {}.", this.getContext().getCommandId());
+
+		} else {
+			LOG.warn("Could not submit command {}.", this.getContext().getCommandId(), t);
+		}
+	}
+
 	@Override
 	public Void call() {
-		try {
-			LOG.debug("Querying command handler for command {}.", this.getContext().getCommand().getId());
-			if (this.getContext().getLithium().getHandlers().getCommand().canExecuteCommand(this.getContext())) {
-				LOG.debug("Command {} eligible, preparing execution.", this.getContext().getCommand().getId());
+		CommandMetrics metrics = getMetrics();
+		long start = System.nanoTime();
+		metrics.recordPhase(Phase.QUEUE_WAIT, start - (this.eligible ? this.queuedNanos : this.createdNanos));
 
-				Parameters params = Commands.generateParameters(this.getContext().getCommand(),
-					this.getContext().getEvent());
-				// Generates parameters
-
-				this.getContext().getCommand().startupCheck(this.getContext(), params);
-				// Checks if the command can be launched
+		try {
+			boolean passed = this.eligible;
+			long gates = this.gateNanos;
+			if (!passed) {
+				LOG.debug("Querying command handler for command {}.", this.getContext().getCommandId());
+				passed = this.getContext().getLithium().getHandlers().getCommand().canExecuteCommand(this.getContext());
+				gates = System.nanoTime() - start;
+			}
+			// Only runs the listeners if the process wasn't dispatched through dispatch()
 
-				LOG.debug("Executing command {}.", this.getContext().getCommand().getId());
-				this.getContext().getCommand().execute(this.getContext(), params);
-				// Executes the command
+			if (passed) {
+				LOG.debug("Command {} eligible, preparing execution.", this.getContext().getCommandId());
+				if (!execute(metrics, gates))
+					return null;
+				// Stops if the parameters were invalid
 
 				if (this.getContext().getCommand().getRatelimit() != 0)
-					RatelimitsManager.getRatelimits(this.getContext().getCommand())
+					RatelimitsManager.getRatelimits(this.getContext().getCommand(), this.getContext().getCommands())
 							.register(this.getContext().getEvent().getAuthor().getId());
 				// Registers the ratelimit if the command has finished
 
-				LOG.debug("Running termination listeners for command {}.", this.getContext().getCommand().getId());
+				LOG.debug("Running termination listeners for command {}.", this.getContext().getCommandId());
 				this.getContext().getLithium().getHandlers().getCommand().runOnCommandFinished(this.getContext());
 			} else {
-				LOG.debug("Command {} not eligible.", this.getContext().getCommand().getId());
+				LOG.debug("Command {} not eligible.", this.getContext().getCommandId());
+				metrics.recordPhase(Phase.GATES, gates);
+				metrics.recordOutcome(Outcome.REJECTED);
 			}
 
 		} catch (Throwable t) {
-			LOG.debug("Caught exception on command {}, handling.", this.getContext().getCommand().getId());
+			if (isCancelled()) {
+				LOG.debug("Command {} was cancelled.", this.getContext().getCommandId());
+				if (this.getContext().isExpired())
+					metrics.recordOutcome(Outcome.TIMED_OUT);
+				return null;
+			}
+			// Exceptions caused by cancellation are expected and not reported, timeouts are
+			// reported by the ProcessManager
+
+			LOG.debug("Caught exception on command {}, handling.", this.getContext().getCommandId());
+			if (t instanceof UsageException)
+				metrics.recordOutcome(Outcome.USAGE_ERROR);
+			else
+				metrics.recordException(t);
+			// Records the outcome before handling, in case the handler throws
+
 			this.getContext().getLithium().getHandlers().getException().handleThrowable(this.getContext(), t);
 			// Handles the exception on exception
 		}
@@ -55,6 +165,96 @@ public class CommandProcess extends LithiumProcess<Void> {
 		return null;
 	}
 
+	private boolean execute(CommandMetrics metrics, long gates) throws Throwable { // NOSONAR
+		Command command = this.getContext().getCommand();
+		ParameterBinder binder = this.getContext().getCommands().getParameterBinder(command);
+
+		long start = System.nanoTime();
+		Parameters params;
+		BoundParameters boundParams = null;
+		if (binder == null) {
+			params = Commands.generateParameters(command, this.getContext().getInvocation());
+			// Generates parameters from the invocation parsed by the listener
+
+		} else {
+			BindingResult result = binder.bind(this.getContext(), this.getContext().getInvocation());
+			boundParams = result.getParameters();
+			if (boundParams == null) {
+				metrics.recordPhase(Phase.PARAMETERS, System.nanoTime() - start);
+				metrics.recordOutcome(Outcome.USAGE_ERROR);
+				LOG.debug("Command {} has invalid parameters.", this.getContext().getCommandId());
+				((TypedCommand) command).onBindingFailure(this.getContext(), result);
+				return false;
+			}
+			// Converts typed parameters, reporting invalid ones without throwing
+
+			params = boundParams.getRaw();
+		}
+		long parsed = System.nanoTime();
+		metrics.recordPhase(Phase.PARAMETERS, parsed - start);
+
+		command.startupCheck(this.getContext(), params);
+		// Checks if the command can be launched
+
+		long checked = System.nanoTime();
+		metrics.recordPhase(Phase.GATES, gates + (checked - parsed));
+
+		LOG.debug("Executing command {}.", this.getContext().getCommandId());
+		try {
+			if (command instanceof Cacheable)
+				serve((Cacheable) command, params);
+			else if (boundParams == null)
+				command.execute(this.getContext(), params);
+			else
+				((TypedCommand) command).execute(this.getContext(), boundParams);
+			// Executes the command
+
+		} finally {
+			metrics.recordPhase(Phase.EXECUTION, System.nanoTime() - checked);
+		}
+
+		metrics.recordOutcome(Outcome.SUCCESS);
+		return true;
+	}
+
+	private void serve(Cacheable cacheable, Parameters params) throws Throwable { // NOSONAR
+		ResultCache cache = this.getContext().getLithium().getResultCache();
+		String key = cacheable.getCacheKey(this.getContext(), params);
+		int id = this.getContext().getCommandId();
+
+		Message result = key == null ? null : cache.get(id, key);
+		if (result == null) {
+			result = cacheable.render(this.getContext(), params);
+			if (key != null)
+				cache.put(id, key, result, cacheable.getCacheTtl());
+
+		} else {
+			LOG.debug("Serving command {} from the result cache.", this.getContext().getCommandId());
+		}
+		// Renders only if there's no valid cached result
+
+		this.getContext().getChannel().sendMessage(result).queue();
+	}
+
+	private CommandMetrics getMetrics() {
+		return this.getContext().getLithium().getCommandMetrics().getOrCreate(this.getContext().getCommandId());
+	}
+
+	@Override
+	public boolean isLimited() {
+		return true;
+	}
+
+	@Override
+	public String getLane() {
+		return this.getContext().getCommand().getLane();
+	}
+
+	@Override
+	public long getWatchdogThreshold() {
+		return this.getContext().getCommand().getWatchdogThreshold();
+	}
+
 	@Override
 	public CommandContext getContext() {
 		ProcessContext context = super.getContext();
@@ -0,0 +1,244 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.github.markozajc.lithium.metrics.Histogram;
+import com.github.markozajc.lithium.processes.limiter.AdaptiveLimiter;
+
+/**
+ * A named {@link ExecutorService} that {@link LithiumProcess}es are routed to by
+ * {@link LithiumProcess#getLane()}. Separate lanes keep processes that block for a
+ * long time (for example commands waiting for a user's reply) from starving quick
+ * ones. Each lane limits how many processes may wait in its queue and keeps its own
+ * metrics. A lane can also have an {@link AdaptiveLimiter}, shedding limited
+ * processes (see {@link LithiumProcess#isLimited()}) once they start queueing for
+ * too long.
+ *
+ * @author Marko Zajc
+ */
+public class ExecutionLane {
+
+	private final String name;
+	private final ExecutorService executor;
+	private final int queueLimit;
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final Histogram queueWait = new Histogram();
+	private final Histogram runTime = new Histogram();
+	private volatile AdaptiveLimiter limiter;
+
+	/**
+	 * Creates a new {@link ExecutionLane} over an existing {@link ExecutorService}.
+	 *
+	 * @param name
+	 *            The lane's name.
+	 * @param executor
+	 *            The {@link ExecutorService} to run processes on.
+	 * @param queueLimit
+	 *            The maximum number of processes waiting for a thread. Processes
+	 *            submitted over the limit are rejected.
+	 */
+	public ExecutionLane(@Nonnull String name, @Nonnull ExecutorService executor, @Nonnegative int queueLimit) {
+		this.name = name;
+		this.executor = executor;
+		this.queueLimit = queueLimit;
+	}
+
+	/**
+	 * Creates a new {@link ExecutionLane} with its own elastic thread pool. Threads are
+	 * started as processes are submitted, up to {@code threads}, reused, and retired
+	 * after a minute of idling. Threads are named {@code lithium-<name>-<number>}.
+	 *
+	 * @param name
+	 *            The lane's name.
+	 * @param threads
+	 *            The maximum number of threads.
+	 * @param queueLimit
+	 *            The maximum number of processes waiting for a thread.
+	 * @return The new {@link ExecutionLane}.
+	 */
+	@Nonnull
+	public static ExecutionLane elastic(@Nonnull String name, @Nonnegative int threads, @Nonnegative int queueLimit) {
+		AtomicInteger counter = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread thread = new Thread(r, "lithium-" + name + "-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		// Idle lanes don't hold on to threads
+
+		return new ExecutionLane(name, executor, queueLimit);
+	}
+
+	/**
+	 * Runs a process's task on this lane.
+	 *
+	 * @param process
+	 *            The {@link LithiumProcess} the task runs.
+	 * @param task
+	 *            The task.
+	 * @return The executor's {@link Future} of the task or {@code null} if the queue is
+	 *         full or the executor has rejected it.
+	 */
+	@Nullable
+	Future<?> execute(@Nonnull LithiumProcess<?> process, @Nonnull Runnable task) {
+		if (this.queued.incrementAndGet() > this.queueLimit) {
+			this.queued.decrementAndGet();
+			this.rejected.increment();
+			return null;
+		}
+
+		long enqueued = System.nanoTime();
+		Future<?> future;
+		try {
+			future = submit(process, () -> {
+				this.queued.decrementAndGet();
+				this.active.incrementAndGet();
+				long start = System.nanoTime();
+				this.queueWait.record(start - enqueued);
+				try {
+					task.run();
+				} finally {
+					this.runTime.record(System.nanoTime() - start);
+					this.active.decrementAndGet();
+					this.completed.increment();
+				}
+			});
+
+		} catch (RejectedExecutionException e) {
+			this.queued.decrementAndGet();
+			this.rejected.increment();
+			return null;
+		}
+
+		this.submitted.increment();
+		return future;
+	}
+
+	/**
+	 * Hands a (wrapped) task over to the executor. Lanes that order tasks themselves
+	 * override this.
+	 *
+	 * @param process
+	 *            The {@link LithiumProcess} the task runs.
+	 * @param task
+	 *            The task.
+	 * @return The {@link Future} of the task.
+	 * @throws RejectedExecutionException
+	 *             If the executor has rejected the task.
+	 */
+	@Nonnull
+	Future<?> submit(@Nonnull LithiumProcess<?> process, @Nonnull Runnable task) {
+		return this.executor.submit(task);
+	}
+
+	/**
+	 * Sets the {@link AdaptiveLimiter} of this lane.
+	 *
+	 * @param limiter
+	 *            The {@link AdaptiveLimiter} or {@code null} to admit all processes
+	 *            (while the queue has room).
+	 */
+	public void setLimiter(@Nullable AdaptiveLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	/**
+	 * @return The {@link AdaptiveLimiter} of this lane or {@code null} if it has none.
+	 */
+	@Nullable
+	public AdaptiveLimiter getLimiter() {
+		return this.limiter;
+	}
+
+	/**
+	 * @return This lane's name.
+	 */
+	@Nonnull
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return The {@link ExecutorService} of this lane.
+	 */
+	@Nonnull
+	public ExecutorService getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * @return The maximum number of processes waiting for a thread.
+	 */
+	public int getQueueLimit() {
+		return this.queueLimit;
+	}
+
+	/**
+	 * @return The number of processes currently waiting for a thread.
+	 */
+	public int getQueued() {
+		return this.queued.get();
+	}
+
+	/**
+	 * @return The number of processes currently running.
+	 */
+	public int getActive() {
+		return this.active.get();
+	}
+
+	/**
+	 * @return The number of accepted processes.
+	 */
+	public long getSubmitted() {
+		return this.submitted.sum();
+	}
+
+	/**
+	 * @return The number of rejected processes.
+	 */
+	public long getRejected() {
+		return this.rejected.sum();
+	}
+
+	/**
+	 * @return The number of finished processes.
+	 */
+	public long getCompleted() {
+		return this.completed.sum();
+	}
+
+	/**
+	 * @return The time processes have spent waiting for a thread, in nanoseconds.
+	 */
+	@Nonnull
+	public Histogram getQueueWait() {
+		return this.queueWait;
+	}
+
+	/**
+	 * @return The time processes have spent running, in nanoseconds.
+	 */
+	@Nonnull
+	public Histogram getRunTime() {
+		return this.runTime;
+	}
+
+}
@@ -0,0 +1,291 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.processes.context.ProcessContext;
+import com.github.markozajc.lithium.utilities.SnowflakeMap;
+
+/**
+ * An {@link ExecutionLane} that keeps a queue per guild (see
+ * {@link ProcessContext#getGuildId()}) and hands tasks to its executor with deficit
+ * round-robin, so a single busy guild can't monopolize the workers. Each guild with
+ * queued tasks gets a turn in a round, during which it may run as many tasks as its
+ * weight (the default weight is {@code 1}); weights can be changed per guild, for
+ * example for premium guilds.
+ * <p>
+ * The executor is sent one dispatch token per task, and the task a token runs is
+ * only picked when a worker gets to it, so fairness holds no matter how the
+ * executor queues work. Queue waits are recorded per guild, see
+ * {@link #getGuildStatistics()}.
+ *
+ * @author Marko Zajc
+ */
+public class FairExecutionLane extends ExecutionLane {
+
+	private final Object lock = new Object();
+	private final Map<Long, GuildQueue> queues = new HashMap<>();
+	private final ArrayDeque<GuildQueue> round = new ArrayDeque<>();
+	// Guarded by lock
+	private final SnowflakeMap<Double> weights = new SnowflakeMap<>();
+	private final SnowflakeMap<GuildStatistics> statistics = new SnowflakeMap<>();
+	private volatile double defaultWeight = 1;
+
+	private static class QueuedTask {
+
+		final FutureTask<Void> task;
+		final long enqueuedNanos;
+
+		QueuedTask(FutureTask<Void> task, long enqueuedNanos) {
+			this.task = task;
+			this.enqueuedNanos = enqueuedNanos;
+		}
+
+	}
+
+	private static class GuildQueue {
+
+		final long guildId;
+		final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+		double deficit;
+
+		GuildQueue(long guildId) {
+			this.guildId = guildId;
+		}
+
+	}
+
+	/**
+	 * Queue-wait statistics of a guild on a {@link FairExecutionLane}.
+	 *
+	 * @author Marko Zajc
+	 */
+	public static class GuildStatistics {
+
+		private final LongAdder dispatched = new LongAdder();
+		private final LongAdder totalWaitNanos = new LongAdder();
+		private final AtomicLong maxWaitNanos = new AtomicLong();
+
+		void record(long waitNanos) {
+			this.dispatched.increment();
+			this.totalWaitNanos.add(waitNanos);
+
+			long max;
+			while (waitNanos > (max = this.maxWaitNanos.get()) && !this.maxWaitNanos.compareAndSet(max, waitNanos)) {
+				// Retries until the maximum is at least this wait
+			}
+		}
+
+		/**
+		 * @return The number of dispatched tasks.
+		 */
+		public long getDispatched() {
+			return this.dispatched.sum();
+		}
+
+		/**
+		 * @return The mean queue wait of dispatched tasks in nanoseconds or {@code 0} if
+		 *         there are none.
+		 */
+		public double getMeanWaitNanos() {
+			long count = this.dispatched.sum();
+			return count == 0 ? 0 : (double) this.totalWaitNanos.sum() / count;
+		}
+
+		/**
+		 * @return The longest queue wait in nanoseconds.
+		 */
+		public long getMaxWaitNanos() {
+			return this.maxWaitNanos.get();
+		}
+
+	}
+
+	/**
+	 * Creates a new {@link FairExecutionLane}.
+	 *
+	 * @param name
+	 *            The lane's name.
+	 * @param executor
+	 *            The {@link ExecutorService} whose threads run the tasks.
+	 * @param queueLimit
+	 *            The maximum number of processes waiting for a thread, across all
+	 *            guilds.
+	 */
+	public FairExecutionLane(@Nonnull String name, @Nonnull ExecutorService executor, @Nonnegative int queueLimit) {
+		super(name, executor, queueLimit);
+	}
+
+	@Override
+	Future<?> submit(LithiumProcess<?> process, Runnable task) {
+		long guildId = process.getContext().getGuildId();
+		QueuedTask queued = new QueuedTask(new FutureTask<>(task, null), System.nanoTime());
+		synchronized (this.lock) {
+			GuildQueue queue = this.queues.get(guildId);
+			if (queue == null) {
+				queue = new GuildQueue(guildId);
+				this.queues.put(guildId, queue);
+				this.round.addLast(queue);
+			}
+			queue.tasks.addLast(queued);
+		}
+		// Enqueues before sending the token, so every token finds a task
+
+		try {
+			getExecutor().execute(this::dispatch);
+		} catch (RejectedExecutionException e) {
+			synchronized (this.lock) {
+				GuildQueue queue = this.queues.get(guildId);
+				if (queue != null && queue.tasks.remove(queued) && queue.tasks.isEmpty())
+					retire(queue);
+			}
+			throw e;
+		}
+
+		return queued.task;
+	}
+
+	private void dispatch() {
+		QueuedTask next;
+		long guildId;
+		synchronized (this.lock) {
+			GuildQueue queue = next();
+			if (queue == null)
+				return;
+			// Can't happen as there's a task per token, but doesn't hurt
+
+			guildId = queue.guildId;
+			next = queue.tasks.pollFirst();
+			queue.deficit -= 1;
+			if (queue.tasks.isEmpty())
+				retire(queue);
+			else if (queue.deficit < 1)
+				this.round.addLast(this.round.pollFirst());
+			// Ends the guild's turn once it has used up its weight
+		}
+
+		getStatistics(guildId).record(System.nanoTime() - next.enqueuedNanos);
+		next.task.run();
+	}
+
+	private GuildQueue next() {
+		// Guarded by lock
+		while (!this.round.isEmpty()) {
+			GuildQueue queue = this.round.peekFirst();
+			if (queue.deficit >= 1)
+				return queue;
+
+			queue.deficit += getWeight(queue.guildId);
+			if (queue.deficit < 1)
+				this.round.addLast(this.round.pollFirst());
+			// Guilds with fractional weights may need several rounds to earn a turn
+		}
+
+		return null;
+	}
+
+	private void retire(GuildQueue queue) {
+		// Guarded by lock
+		this.round.remove(queue);
+		this.queues.remove(queue.guildId);
+	}
+
+	private GuildStatistics getStatistics(long guildId) {
+		GuildStatistics guildStatistics = this.statistics.get(guildId);
+		if (guildStatistics == null)
+			guildStatistics = this.statistics.computeIfAbsent(guildId, id -> new GuildStatistics());
+
+		return guildStatistics;
+	}
+
+	/**
+	 * Sets the weight of a guild, that is how many of its tasks are dispatched per
+	 * round. Weights below {@code 1} make the guild skip rounds.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @param weight
+	 *            The weight, must be positive.
+	 */
+	public void setWeight(long guildId, double weight) {
+		if (!(weight > 0))
+			throw new IllegalArgumentException("Weights must be positive.");
+
+		this.weights.put(guildId, weight);
+	}
+
+	/**
+	 * Resets the weight of a guild to the default weight.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 */
+	public void resetWeight(long guildId) {
+		this.weights.remove(guildId);
+	}
+
+	/**
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The weight of that guild.
+	 */
+	public double getWeight(long guildId) {
+		Double weight = this.weights.get(guildId);
+		return weight == null ? this.defaultWeight : weight.doubleValue();
+	}
+
+	/**
+	 * Sets the weight of guilds without their own weight, including processes that
+	 * don't run in a guild.
+	 *
+	 * @param weight
+	 *            The weight, must be positive.
+	 */
+	public void setDefaultWeight(double weight) {
+		if (!(weight > 0))
+			throw new IllegalArgumentException("Weights must be positive.");
+
+		this.defaultWeight = weight;
+	}
+
+	/**
+	 * @return The queue-wait statistics of every guild that has had a task dispatched,
+	 *         keyed by guild ID. Processes that don't run in a guild are under
+	 *         {@code 0}.
+	 */
+	@Nonnull
+	public Map<Long, GuildStatistics> getGuildStatistics() {
+		Map<Long, GuildStatistics> snapshot = new HashMap<>();
+		for (long guildId : this.statistics.keys()) {
+			GuildStatistics guildStatistics = this.statistics.get(guildId);
+			if (guildStatistics != null)
+				snapshot.put(guildId, guildStatistics);
+		}
+
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The number of tasks of that guild waiting to be dispatched.
+	 */
+	public int getQueued(long guildId) {
+		synchronized (this.lock) {
+			GuildQueue queue = this.queues.get(guildId);
+			return queue == null ? 0 : queue.tasks.size();
+		}
+	}
+
+}
@@ -1,6 +1,15 @@
 package com.github.markozajc.lithium.processes;
 
+import java.util.Iterator;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.github.markozajc.lithium.Lithium;
 import com.github.markozajc.lithium.processes.context.ProcessContext;
@@ -9,12 +18,41 @@ import com.github.markozajc.lithium.processes.context.ProcessContext;
  * A representation of a process. {@link LithiumProcess}es are managed by a
  * {@link ProcessManager}. Each {@link LithiumProcess} has a {@link ProcessContext}
  * which can be used to determine various things
+ * <p>
+ * Submitted processes get an ID (see {@link #getId()}) and can be cancelled with
+ * {@link #cancel(boolean)}. Cancellation is propagated to everything the process has
+ * registered with {@link #addCancelListener(Runnable)} or
+ * {@link #trackFuture(Future)}, so a process blocked on a
+ * {@link com.github.markozajc.lithium.utilities.MessageLock} or a
+ * {@link com.github.markozajc.lithium.data.properties.PropertyManager} call is
+ * woken up even if it's not interrupted.
  *
  * @author Marko Zajc
  */
 public abstract class LithiumProcess<T> implements Callable<T> {
 
+	/**
+	 * The value of {@link #getWatchdogThreshold()} that makes the
+	 * {@link ProcessWatchdog} use its default threshold.
+	 */
+	public static final long WATCHDOG_DEFAULT = -1;
+	/**
+	 * The value of {@link #getWatchdogThreshold()} that exempts a process from the
+	 * {@link ProcessWatchdog}.
+	 */
+	public static final long WATCHDOG_DISABLED = 0;
+
+	private static final ThreadLocal<LithiumProcess<?>> CURRENT = new ThreadLocal<>();
+
 	private final ProcessContext context;
+	private final Queue<Runnable> cancelListeners = new ConcurrentLinkedQueue<>();
+	private final Queue<Future<?>> trackedFutures = new ConcurrentLinkedQueue<>();
+	private volatile long id;
+	private volatile Thread thread;
+	private volatile long startedNanos;
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+	private volatile boolean interrupt;
+	private volatile Future<?> future;
 
 	/**
 	 * Creates a new {@link LithiumProcess}.
@@ -26,6 +64,15 @@ public abstract class LithiumProcess<T> implements Callable<T> {
 		this.context = context;
 	}
 
+	/**
+	 * @return The {@link LithiumProcess} running on the current thread or {@code null}
+	 *         if there's none.
+	 */
+	@Nullable
+	public static LithiumProcess<?> current() {
+		return CURRENT.get();
+	}
+
 	/**
 	 * @return The {@link Lithium} instance of this {@link LithiumProcess}.
 	 */
@@ -33,4 +80,192 @@ public abstract class LithiumProcess<T> implements Callable<T> {
 		return this.context;
 	}
 
+	/**
+	 * @return The ID of this process, assigned by the {@link ProcessManager} when it's
+	 *         submitted, or {@code 0} if it hasn't been submitted yet.
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Cancels this process. A process that hasn't started yet won't be run at all.
+	 * Cancel listeners are run and tracked {@link Future}s are cancelled, which wakes
+	 * up a process waiting on them even if it's not interrupted.
+	 *
+	 * @param mayInterrupt
+	 *            Whether to also interrupt the thread running this process.
+	 * @return {@code false} if the process has already been cancelled, {@code true}
+	 *         otherwise.
+	 */
+	public boolean cancel(boolean mayInterrupt) {
+		if (mayInterrupt)
+			this.interrupt = true;
+		// Set before cancelling, so setFuture() never sees the cancellation without it
+
+		if (!this.cancelled.compareAndSet(false, true))
+			return false;
+		// Only one of concurrent cancellations wins
+
+		Runnable listener;
+		while ((listener = this.cancelListeners.poll()) != null)
+			listener.run();
+
+		Future<?> tracked;
+		while ((tracked = this.trackedFutures.poll()) != null)
+			tracked.cancel(mayInterrupt);
+
+		Future<?> executorFuture = this.future;
+		if (executorFuture != null && this.thread != null)
+			executorFuture.cancel(mayInterrupt);
+		// Interrupting through the executor's Future can't hit another task that has
+		// since taken over the thread. Processes that haven't started yet are skipped by
+		// the ProcessManager instead, so the executor's bookkeeping stays intact
+
+		return true;
+	}
+
+	/**
+	 * @return Whether this process has been cancelled.
+	 */
+	public boolean isCancelled() {
+		return this.cancelled.get();
+	}
+
+	/**
+	 * Throws a {@link CancellationException} if this process has been cancelled. Can be
+	 * called by long-running processes at convenient points.
+	 *
+	 * @throws CancellationException
+	 *             If this process has been cancelled.
+	 */
+	public void checkCancelled() {
+		if (this.cancelled.get())
+			throw new CancellationException();
+	}
+
+	/**
+	 * Registers a listener that's run once when this process is cancelled. If the
+	 * process has already been cancelled, the listener is run immediately.
+	 *
+	 * @param listener
+	 *            The listener.
+	 */
+	public void addCancelListener(@Nonnull Runnable listener) {
+		this.cancelListeners.add(listener);
+		if (this.cancelled.get() && this.cancelListeners.remove(listener))
+			listener.run();
+	}
+
+	/**
+	 * Unregisters a cancel listener.
+	 *
+	 * @param listener
+	 *            The listener.
+	 */
+	public void removeCancelListener(@Nonnull Runnable listener) {
+		this.cancelListeners.remove(listener);
+	}
+
+	/**
+	 * Makes a {@link Future} this process depends on get cancelled along with this
+	 * process.
+	 *
+	 * @param future
+	 *            The {@link Future}.
+	 * @return The same {@link Future}.
+	 */
+	@Nonnull
+	public <F extends Future<?>> F trackFuture(@Nonnull F future) {
+		Iterator<Future<?>> iterator = this.trackedFutures.iterator();
+		while (iterator.hasNext())
+			if (iterator.next().isDone())
+				iterator.remove();
+		// Forgets completed futures so a long-running process doesn't accumulate them
+
+		this.trackedFutures.add(future);
+		if (this.cancelled.get() && this.trackedFutures.remove(future))
+			future.cancel(true);
+
+		return future;
+	}
+
+	/**
+	 * @return How long this process may run before the {@link ProcessWatchdog} reports
+	 *         it, in milliseconds, or {@link #WATCHDOG_DEFAULT} or
+	 *         {@link #WATCHDOG_DISABLED}.
+	 */
+	public long getWatchdogThreshold() {
+		return WATCHDOG_DEFAULT;
+	}
+
+	/**
+	 * @return Whether the per-user and per-guild process limits of the
+	 *         {@link ProcessManager} apply to this process. Processes that aren't
+	 *         limited don't count towards the limits, but are still counted by
+	 *         {@link ProcessManager#getUserProcessCount(long)} and
+	 *         {@link ProcessManager#getGuildProcessCount(long)}.
+	 */
+	public boolean isLimited() {
+		return false;
+	}
+
+	/**
+	 * @return The process that forked this one through a {@link ProcessScope} or
+	 *         {@code null} if it wasn't forked.
+	 */
+	@Nullable
+	public LithiumProcess<?> getParent() {
+		return null;
+	}
+
+	/**
+	 * @return The name of the {@link ExecutionLane} this process should run on, see
+	 *         {@link ProcessManager#submitProcess(LithiumProcess)}.
+	 */
+	public String getLane() {
+		return ProcessManager.LANE_DEFAULT;
+	}
+
+	/**
+	 * @return The {@link Thread} running this process or {@code null} if it isn't
+	 *         running (yet).
+	 */
+	public Thread getThread() {
+		return this.thread;
+	}
+
+	/**
+	 * @return The {@link System#nanoTime()} at which this process started running. Only
+	 *         meaningful while {@link #getThread()} is not {@code null}.
+	 */
+	public long getStartedNanos() {
+		return this.startedNanos;
+	}
+
+	void onSubmit(long processId) {
+		this.id = processId;
+	}
+
+	void setFuture(@Nonnull Future<?> executorFuture) {
+		this.future = executorFuture;
+		if (this.cancelled.get() && this.thread != null)
+			executorFuture.cancel(this.interrupt);
+		// Catches cancellations that happened before the Future was known
+	}
+
+	void onStart() {
+		CURRENT.set(this);
+		this.startedNanos = System.nanoTime();
+		this.thread = Thread.currentThread();
+		// Publishes the start time along with the thread
+	}
+
+	void onFinish() {
+		this.thread = null;
+		this.cancelListeners.clear();
+		this.trackedFutures.clear();
+		CURRENT.remove();
+	}
+
 }
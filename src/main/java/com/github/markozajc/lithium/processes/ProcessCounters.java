@@ -0,0 +1,47 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent counters of processes keyed by a snowflake (a user or guild ID).
+ * Incrementing against a limit is atomic, and counters that drop to zero are removed,
+ * so the map only holds users or guilds that currently have processes.
+ *
+ * @author Marko Zajc
+ */
+final class ProcessCounters {
+
+	private final ConcurrentHashMap<Long, Integer> counts = new ConcurrentHashMap<>();
+
+	/**
+	 * Increments a counter unless it has already reached the limit.
+	 *
+	 * @param id
+	 *            The key.
+	 * @param limit
+	 *            The limit or {@code 0} for no limit.
+	 * @return Whether the counter was incremented.
+	 */
+	boolean tryIncrement(long id, int limit) {
+		boolean[] incremented = new boolean[1];
+		this.counts.compute(id, (k, count) -> {
+			int current = count == null ? 0 : count.intValue();
+			if (limit > 0 && current >= limit)
+				return count;
+
+			incremented[0] = true;
+			return current + 1;
+		});
+		return incremented[0];
+	}
+
+	void decrement(long id) {
+		this.counts.computeIfPresent(id, (k, count) -> count.intValue() <= 1 ? null : count.intValue() - 1);
+	}
+
+	int get(long id) {
+		Integer count = this.counts.get(id);
+		return count == null ? 0 : count.intValue();
+	}
+
+}
@@ -1,15 +1,37 @@
 package com.github.markozajc.lithium.processes;
 
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
-import com.github.markozajc.lithium.tasks.Task;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.markozajc.lithium.commands.exceptions.runtime.DeadlineExceededException;
+import com.github.markozajc.lithium.processes.context.ProcessContext;
+import com.github.markozajc.lithium.processes.limiter.AdaptiveLimiter;
+import com.github.markozajc.lithium.processes.limiter.ProcessLimitException;
+import com.github.markozajc.lithium.processes.limiter.ProcessLimitException.Scope;
+import com.github.markozajc.lithium.processes.limiter.ProcessShedException;
 
 /**
  * A manager for {@link LithiumProcess}. Can be used to submit {@link LithiumProcess}
@@ -17,77 +39,662 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * {@link #submitProcess(LithiumProcess)}) or to run them as unbound processes (using
  * {@link #runUnboundProcess(LithiumProcess)}). A {@link ProcessManager} also keeps
  * tabs on the currently running processes, a {@link Set} which can easily be fetched
- * using {@link #getProcesses()}.
+ * using {@link #getProcesses()}. Running processes are watched by a
+ * {@link ProcessWatchdog}.
+ * <p>
+ * Processes are run on {@link ExecutionLane}s, picked by
+ * {@link LithiumProcess#getLane()}. By default there are two lanes:
+ * {@value #LANE_DEFAULT}, running on the {@link ExecutorService} this
+ * {@link ProcessManager} was created with, and {@value #LANE_INTERACTIVE}, which has
+ * its own threads and is used by processes that wait for users, so those can't
+ * starve the rest. Unbound processes run on a third lane, {@value #LANE_UNBOUND}.
+ * Lanes can be added or replaced with {@link #addLane(ExecutionLane)}.
+ * <p>
+ * Every process gets an ID when it's submitted and can be cancelled by it
+ * ({@link #cancel(long, boolean)}), or in bulk by the user or guild it runs for (see
+ * {@link ProcessContext#getUserId()} and {@link ProcessContext#getGuildId()}). The
+ * number of submitted processes is also counted per user and per guild, and can be
+ * limited for processes that {@link LithiumProcess#isLimited()}.
+ * <p>
+ * Processes whose {@link ProcessContext} has a deadline are cancelled (and
+ * interrupted) by a timer shared by all processes once it passes, whether they are
+ * still queued or already running. Timeouts are reported to the
+ * {@link com.github.markozajc.lithium.handlers.ExceptionHandler} as a
+ * {@link DeadlineExceededException}.
  *
  * @author Marko Zajc
  */
 public class ProcessManager {
 
-	private static final String UNBOUND_NAME = "lithium-unbound-process";
-	private final ExecutorService executor;
-	private final Set<LithiumProcess<?>> processes = Collections.synchronizedSet(new HashSet<>());
+	private static final Logger LOG = LoggerFactory.getLogger(ProcessManager.class);
+
+	/**
+	 * The name of the lane running on the {@link ExecutorService} passed to the
+	 * constructor.
+	 */
+	public static final String LANE_DEFAULT = "default";
+	/**
+	 * The name of the lane for processes that spend most of their time waiting for
+	 * users.
+	 */
+	public static final String LANE_INTERACTIVE = "interactive";
+	/**
+	 * The name of the lane running unbound processes (see
+	 * {@link #runUnboundProcess(LithiumProcess)}).
+	 */
+	public static final String LANE_UNBOUND = "unbound";
+
+	private static final int INTERACTIVE_THREADS = 32;
+	private static final int INTERACTIVE_QUEUE_LIMIT = 256;
+	private static final int UNBOUND_THREADS = 256;
+	private static final int UNBOUND_QUEUE_LIMIT = 4096;
+	private static final int GATE_THREADS = 4;
+	private static final int GATE_QUEUE_LIMIT = 1024;
+	private final ExecutionLane defaultLane;
+	private final ConcurrentHashMap<String, ExecutionLane> lanes = new ConcurrentHashMap<>();
+	private final Set<LithiumProcess<?>> processes = ConcurrentHashMap.newKeySet();
+	private final Map<Long, LithiumProcess<?>> processesById = new ConcurrentHashMap<>();
+	private final AtomicLong processIds = new AtomicLong();
+	private final ProcessCounters userCounters = new ProcessCounters();
+	private final ProcessCounters guildCounters = new ProcessCounters();
+	private final ProcessCounters limitedUserCounters = new ProcessCounters();
+	private final ProcessCounters limitedGuildCounters = new ProcessCounters();
+	private volatile int userProcessLimit;
+	private volatile int guildProcessLimit;
+	private final ProcessWatchdog watchdog;
+	private final ScheduledThreadPoolExecutor deadlineTimer;
+	private final ThreadPoolExecutor gateExecutor;
+	private final Map<LithiumProcess<?>, ScheduledFuture<?>> deadlines = new ConcurrentHashMap<>();
+	private final Object drained = new Object();
+	private volatile boolean shutdown;
 
 	public ProcessManager(ExecutorService executor) {
-		this.executor = executor;
+		this(executor, false);
+	}
+
+	/**
+	 * Creates a new {@link ProcessManager}.
+	 *
+	 * @param executor
+	 *            The {@link ExecutorService} of the {@value #LANE_DEFAULT} lane.
+	 * @param fairScheduling
+	 *            Whether the {@value #LANE_DEFAULT} lane should be a
+	 *            {@link FairExecutionLane}, sharing the executor fairly between guilds
+	 *            instead of running processes in submission order.
+	 */
+	public ProcessManager(ExecutorService executor, boolean fairScheduling) {
+		this(fairScheduling ? new FairExecutionLane(LANE_DEFAULT, executor, Integer.MAX_VALUE)
+				: new ExecutionLane(LANE_DEFAULT, executor, Integer.MAX_VALUE),
+			ExecutionLane.elastic(LANE_INTERACTIVE, INTERACTIVE_THREADS, INTERACTIVE_QUEUE_LIMIT),
+			ExecutionLane.elastic(LANE_UNBOUND, UNBOUND_THREADS, UNBOUND_QUEUE_LIMIT));
+	}
+
+	private ProcessManager(ExecutionLane defaultLane, ExecutionLane interactiveLane, ExecutionLane unboundLane) {
+		this.defaultLane = defaultLane;
+		this.defaultLane.setLimiter(new AdaptiveLimiter());
+		// Whether the executor's queue is bounded is up to the caller, so the default lane
+		// sheds load adaptively instead
+		this.lanes.put(LANE_DEFAULT, this.defaultLane);
+		this.lanes.put(LANE_INTERACTIVE, interactiveLane);
+		this.lanes.put(LANE_UNBOUND, unboundLane);
+		this.watchdog = new ProcessWatchdog(this);
+		this.deadlineTimer = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread thread = new Thread(r, "lithium-process-deadlines");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.deadlineTimer.setRemoveOnCancelPolicy(true);
+		// Processes usually finish before their deadline, so their expiries shouldn't
+		// linger in the timer's queue
+
+		AtomicInteger gateThreads = new AtomicInteger();
+		this.gateExecutor = new ThreadPoolExecutor(GATE_THREADS, GATE_THREADS, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(GATE_QUEUE_LIMIT), r -> {
+					Thread thread = new Thread(r, "lithium-gates-" + gateThreads.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.gateExecutor.allowCoreThreadTimeOut(true);
+		// Gates run before a command is admitted to a lane, so they get their own small,
+		// bounded pool instead of taking unaccounted slots on the lanes' executors
+	}
+
+	/**
+	 * Creates a new {@link ProcessManager} running every process on its own virtual
+	 * thread (see {@link VirtualExecutionLane}). Blocked processes then cost next to
+	 * nothing, while the number of processes running at once is still bounded per
+	 * lane. Requires Java 21 or newer (see {@link VirtualThreads#isSupported()}).
+	 *
+	 * @param concurrency
+	 *            The maximum number of processes running at once on the
+	 *            {@value #LANE_DEFAULT} lane.
+	 * @param interactiveConcurrency
+	 *            The maximum number of processes running at once on the
+	 *            {@value #LANE_INTERACTIVE} lane.
+	 * @return The new {@link ProcessManager}.
+	 * @throws UnsupportedOperationException
+	 *             If virtual threads are not available on this runtime.
+	 */
+	@Nonnull
+	public static ProcessManager withVirtualThreads(int concurrency, int interactiveConcurrency) {
+		return new ProcessManager(new VirtualExecutionLane(LANE_DEFAULT, concurrency, Integer.MAX_VALUE),
+				new VirtualExecutionLane(LANE_INTERACTIVE, interactiveConcurrency, INTERACTIVE_QUEUE_LIMIT),
+				new VirtualExecutionLane(LANE_UNBOUND, UNBOUND_THREADS, UNBOUND_QUEUE_LIMIT));
 	}
 
 	/**
-	 * Submits a {@link LithiumProcess} to the {@link ExecutorService}.
+	 * Submits a {@link LithiumProcess} to the {@link ExecutionLane} named by its
+	 * {@link LithiumProcess#getLane()}, falling back to the {@value #LANE_DEFAULT} lane
+	 * if there's no such lane. If the lane is overloaded (its queue is full or its
+	 * {@link AdaptiveLimiter} sheds the process), the returned
+	 * {@link CompletableFuture} is completed exceptionally with a
+	 * {@link ProcessShedException}. If the process's user or guild has reached
+	 * its process limit, it is completed with a {@link ProcessLimitException}.
 	 *
 	 * @param process
 	 *            The {@link LithiumProcess} to submit.
 	 * @return The {@link Future} of this process.
 	 */
-	@SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE") // Exceptions are caught in the submit block and passed
-																// to the CompletableFuture
 	public <T> CompletableFuture<T> submitProcess(LithiumProcess<T> process) {
-		this.processes.add(process);
+		ExecutionLane lane = getLane(process.getLane());
+		if (lane == null) {
+			LOG.warn("Lane {} does not exist, submitting {} to the default lane.", process.getLane(),
+					process.getClass().getName());
+			lane = this.defaultLane;
+		}
+
+		return submitProcess(process, lane);
+	}
+
+	private <T> CompletableFuture<T> submitProcess(LithiumProcess<T> process, ExecutionLane lane) {
 		CompletableFuture<T> cf = new CompletableFuture<>();
-		this.executor.submit(() -> {
-			try {
-				cf.complete(process.call());
-			} catch (Exception e) {
-				cf.completeExceptionally(e);
-			}
-			this.processes.remove(process);
-		});
+		if (this.shutdown) {
+			cf.completeExceptionally(new RejectedExecutionException("The ProcessManager has been shut down."));
+			return cf;
+		}
+
+		try {
+			admit(process);
+		} catch (ProcessLimitException e) {
+			cf.completeExceptionally(e);
+			return cf;
+		}
+
+		AdaptiveLimiter limiter = process.isLimited() ? lane.getLimiter() : null;
+		if (limiter != null && !limiter.tryAcquire()) {
+			release(process);
+			cf.completeExceptionally(
+				new ProcessShedException(lane.getName(), "concurrency limit of " + limiter.getLimit() + " reached"));
+			return cf;
+		}
+
+		long submitted = System.nanoTime();
+		Future<?> future = lane.execute(process, () -> run(process, cf, limiter, submitted));
+		if (future == null) {
+			if (limiter != null)
+				limiter.release();
+			release(process);
+			cf.completeExceptionally(new ProcessShedException(lane.getName(), "queue is full"));
+		} else {
+			process.setFuture(future);
+		}
+		// Exceptions are caught in the task and passed to the CompletableFuture
+
 		return cf;
 	}
 
+	private <T> void run(LithiumProcess<T> process, CompletableFuture<T> cf, @Nullable AdaptiveLimiter limiter,
+			long submitted) {
+		if (process.isCancelled()) {
+			if (limiter != null)
+				limiter.release();
+			release(process);
+			cf.completeExceptionally(new CancellationException());
+			return;
+		}
+		// Skips processes cancelled while queued
+
+		if (limiter != null)
+			limiter.onStart(System.nanoTime() - submitted);
+		process.onStart();
+		try {
+			T result = process.call();
+			if (process.isCancelled())
+				cf.completeExceptionally(new CancellationException());
+			else
+				cf.complete(result);
+
+		} catch (Exception e) {
+			cf.completeExceptionally(process.isCancelled() ? new CancellationException() : e);
+		} finally {
+			process.onFinish();
+			if (limiter != null)
+				limiter.release();
+			release(process);
+		}
+	}
+
+	private void admit(LithiumProcess<?> process) {
+		long userId = process.getContext().getUserId();
+		long guildId = process.getContext().getGuildId();
+		if (process.isLimited()) {
+			int userLimit = this.userProcessLimit;
+			if (userId != 0 && !this.limitedUserCounters.tryIncrement(userId, userLimit))
+				throw new ProcessLimitException(Scope.USER, userId, userLimit);
+
+			int guildLimit = this.guildProcessLimit;
+			if (guildId != 0 && !this.limitedGuildCounters.tryIncrement(guildId, guildLimit)) {
+				if (userId != 0)
+					this.limitedUserCounters.decrement(userId);
+				throw new ProcessLimitException(Scope.GUILD, guildId, guildLimit);
+			}
+		}
+		// Checks and increments atomically, so concurrent submissions can't both pass. Only
+		// limited processes count towards the limits, so dialogs and children don't use
+		// them up
+
+		if (userId != 0)
+			this.userCounters.tryIncrement(userId, 0);
+		if (guildId != 0)
+			this.guildCounters.tryIncrement(guildId, 0);
+
+		process.onSubmit(this.processIds.incrementAndGet());
+		this.processesById.put(process.getId(), process);
+		this.processes.add(process);
+
+		ProcessContext context = process.getContext();
+		if (context.hasDeadline())
+			this.deadlines.put(process,
+				this.deadlineTimer.schedule(() -> expire(process), context.getRemainingNanos(), TimeUnit.NANOSECONDS));
+	}
+
+	private void expire(LithiumProcess<?> process) {
+		this.deadlines.remove(process);
+		if (!this.processes.contains(process) || !process.cancel(true))
+			return;
+		// Ignores processes that have finished or were cancelled otherwise in the meantime
+
+		LOG.debug("Process {} has run past its deadline, cancelled it.", process.getId());
+		if (process.getParent() != null)
+			return;
+		// Children share their parent's deadline, so only the parent's timeout is reported
+
+		try {
+			process.getContext()
+					.getLithium()
+					.getHandlers()
+					.getException()
+					.handleThrowable(process.getContext(), new DeadlineExceededException());
+		} catch (Throwable t) { // NOSONAR
+			LOG.error("Caught an exception while reporting a timeout", t);
+			// Keeps the timer alive
+		}
+	}
+
+	private void release(LithiumProcess<?> process) {
+		if (!this.processes.remove(process))
+			return;
+		this.processesById.remove(process.getId());
+
+		ScheduledFuture<?> expiry = this.deadlines.remove(process);
+		if (expiry != null)
+			expiry.cancel(false);
+
+		boolean limited = process.isLimited();
+		long userId = process.getContext().getUserId();
+		if (userId != 0) {
+			this.userCounters.decrement(userId);
+			if (limited)
+				this.limitedUserCounters.decrement(userId);
+		}
+
+		long guildId = process.getContext().getGuildId();
+		if (guildId != 0) {
+			this.guildCounters.decrement(guildId);
+			if (limited)
+				this.limitedGuildCounters.decrement(guildId);
+		}
+
+		if (this.shutdown) {
+			synchronized (this.drained) {
+				this.drained.notifyAll();
+			}
+		}
+		// Wakes up awaitProcesses(), only needed while draining. Every release is signalled,
+		// as the waiter may be ignoring some of the remaining processes
+	}
+
+	/**
+	 * Limits the number of submitted (queued or running) processes per user. Only
+	 * processes that {@link LithiumProcess#isLimited()} are limited and count towards
+	 * it (see {@link #getLimitedUserProcessCount(long)}).
+	 *
+	 * @param limit
+	 *            The limit or {@code 0} for no limit.
+	 */
+	public void setUserProcessLimit(int limit) {
+		this.userProcessLimit = limit;
+	}
+
+	/**
+	 * Limits the number of submitted (queued or running) processes per guild. Only
+	 * processes that {@link LithiumProcess#isLimited()} are limited and count towards
+	 * it (see {@link #getLimitedGuildProcessCount(long)}).
+	 *
+	 * @param limit
+	 *            The limit or {@code 0} for no limit.
+	 */
+	public void setGuildProcessLimit(int limit) {
+		this.guildProcessLimit = limit;
+	}
+
+	/**
+	 * @return The per-user process limit or {@code 0} if there's none.
+	 */
+	public int getUserProcessLimit() {
+		return this.userProcessLimit;
+	}
+
+	/**
+	 * @return The per-guild process limit or {@code 0} if there's none.
+	 */
+	public int getGuildProcessLimit() {
+		return this.guildProcessLimit;
+	}
+
+	/**
+	 * @param userId
+	 *            The user's ID.
+	 * @return The number of submitted (queued or running) processes of that user.
+	 */
+	public int getUserProcessCount(long userId) {
+		return this.userCounters.get(userId);
+	}
+
+	/**
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The number of submitted (queued or running) processes in that guild.
+	 */
+	public int getGuildProcessCount(long guildId) {
+		return this.guildCounters.get(guildId);
+	}
+
+	/**
+	 * @param userId
+	 *            The user's ID.
+	 * @return The number of submitted (queued or running) processes of that user that
+	 *         {@link LithiumProcess#isLimited()}, which is what the per-user limit is
+	 *         checked against.
+	 */
+	public int getLimitedUserProcessCount(long userId) {
+		return this.limitedUserCounters.get(userId);
+	}
+
+	/**
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The number of submitted (queued or running) processes in that guild that
+	 *         {@link LithiumProcess#isLimited()}, which is what the per-guild limit is
+	 *         checked against.
+	 */
+	public int getLimitedGuildProcessCount(long guildId) {
+		return this.limitedGuildCounters.get(guildId);
+	}
+
+	/**
+	 * Adds an {@link ExecutionLane}, replacing the existing lane with the same name.
+	 * The replaced lane's {@link ExecutorService} is not shut down.
+	 *
+	 * @param lane
+	 *            The {@link ExecutionLane} to add.
+	 * @return The replaced {@link ExecutionLane} or {@code null} if there was none.
+	 */
+	@Nullable
+	public ExecutionLane addLane(@Nonnull ExecutionLane lane) {
+		if (LANE_DEFAULT.equals(lane.getName()))
+			throw new IllegalArgumentException("The default lane can not be replaced.");
+
+		return this.lanes.put(lane.getName(), lane);
+	}
+
+	/**
+	 * @param name
+	 *            The name of the lane.
+	 * @return The {@link ExecutionLane} with that name or {@code null} if there's none.
+	 */
+	@Nullable
+	public ExecutionLane getLane(@Nonnull String name) {
+		return this.lanes.get(name);
+	}
+
+	/**
+	 * @return All {@link ExecutionLane}s of this {@link ProcessManager}.
+	 */
+	@Nonnull
+	public Collection<ExecutionLane> getLanes() {
+		return Collections.unmodifiableCollection(this.lanes.values());
+	}
+
 	/**
 	 * Runs an "unbound" {@link LithiumProcess}. Unbound processes run independently of
-	 * the {@link ExecutorService}. Unbound processes use {@link Task}s in the
-	 * background. All created {@link Task}s will be named
-	 * {@code lithium-unbound-process}
+	 * the other lanes, on the {@value #LANE_UNBOUND} lane, regardless of their
+	 * {@link LithiumProcess#getLane()}. By default that lane has its own elastic pool of
+	 * at most 256 threads, which are reused and retire when idle.
 	 *
 	 * @param process
 	 *            The {@link LithiumProcess} to run.
 	 * @return The {@link Future} of this process.
 	 */
 	public <T> CompletableFuture<T> runUnboundProcess(LithiumProcess<T> process) {
-		this.processes.add(process);
-		CompletableFuture<T> cf = new CompletableFuture<>();
-		new Task(() -> {
-			this.processes.add(process);
-			cf.complete(process.call());
-			this.processes.remove(process);
-		}, UNBOUND_NAME).execute();
-		return cf;
+		return submitProcess(process, this.lanes.get(LANE_UNBOUND));
+	}
+
+	/**
+	 * @param id
+	 *            The {@link LithiumProcess#getId()}.
+	 * @return The submitted (queued or running) {@link LithiumProcess} with that ID or
+	 *         {@code null} if there's none.
+	 */
+	@Nullable
+	public LithiumProcess<?> getProcess(long id) {
+		return this.processesById.get(id);
+	}
+
+	/**
+	 * Cancels a process by its ID.
+	 *
+	 * @param id
+	 *            The {@link LithiumProcess#getId()}.
+	 * @param mayInterrupt
+	 *            Whether to interrupt the process if it's running.
+	 * @return Whether a process was cancelled.
+	 * @see LithiumProcess#cancel(boolean)
+	 */
+	public boolean cancel(long id, boolean mayInterrupt) {
+		LithiumProcess<?> process = getProcess(id);
+		return process != null && process.cancel(mayInterrupt);
+	}
+
+	/**
+	 * Cancels all processes run for a user.
+	 *
+	 * @param userId
+	 *            The user's ID.
+	 * @param mayInterrupt
+	 *            Whether to interrupt processes that are running.
+	 * @return The number of cancelled processes.
+	 * @see ProcessContext#getUserId()
+	 */
+	public int cancelByUser(long userId, boolean mayInterrupt) {
+		return cancelIf(p -> p.getContext().getUserId() == userId, mayInterrupt);
+	}
+
+	/**
+	 * Cancels all processes run in a guild.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @param mayInterrupt
+	 *            Whether to interrupt processes that are running.
+	 * @return The number of cancelled processes.
+	 * @see ProcessContext#getGuildId()
+	 */
+	public int cancelByGuild(long guildId, boolean mayInterrupt) {
+		return cancelIf(p -> p.getContext().getGuildId() == guildId, mayInterrupt);
+	}
+
+	/**
+	 * Cancels all submitted processes.
+	 *
+	 * @param mayInterrupt
+	 *            Whether to interrupt processes that are running.
+	 * @return The number of cancelled processes.
+	 */
+	public int cancelAll(boolean mayInterrupt) {
+		return cancelIf(p -> true, mayInterrupt);
 	}
 
 	/**
-	 * A {@link Set} of currently running {@link LithiumProcess}es. Note that this does
-	 * not include processes that are queued in this {@link ProcessManager}'s
-	 * {@link ExecutorService}.
+	 * Cancels all submitted processes except for some.
 	 *
-	 * @return A {@link Set} of running {@link LithiumProcess}es.
+	 * @param mayInterrupt
+	 *            Whether to interrupt processes that are running.
+	 * @param exempt
+	 *            The processes to leave running.
+	 * @return The number of cancelled processes.
+	 */
+	public int cancelAll(boolean mayInterrupt, @Nonnull Predicate<LithiumProcess<?>> exempt) {
+		return cancelIf(exempt.negate(), mayInterrupt);
+	}
+
+	private int cancelIf(Predicate<LithiumProcess<?>> filter, boolean mayInterrupt) {
+		int cancelled = 0;
+		for (LithiumProcess<?> process : this.processes)
+			if (filter.test(process) && process.cancel(mayInterrupt))
+				cancelled++;
+
+		return cancelled;
+	}
+
+	/**
+	 * A {@link Set} of currently submitted {@link LithiumProcess}es, both queued and
+	 * running (see {@link LithiumProcess#getThread()} to tell them apart). Processes
+	 * forked through a {@link ProcessScope} are included, attributed to their parent by
+	 * {@link LithiumProcess#getParent()}.
+	 *
+	 * @return A {@link Set} of submitted {@link LithiumProcess}es.
 	 */
 	public Set<LithiumProcess<?>> getProcesses() { // NOSONAR
 		return Collections.unmodifiableSet(this.processes);
 	}
 
+	/**
+	 * @return The {@link ProcessWatchdog} watching this {@link ProcessManager}'s
+	 *         processes.
+	 */
+	public ProcessWatchdog getWatchdog() {
+		return this.watchdog;
+	}
+
+	/**
+	 * @return The small, bounded {@link Executor} running synchronous
+	 *         {@link com.github.markozajc.lithium.handlers.CommandHandler.CommandListener}s
+	 *         before commands are submitted. It rejects tasks once its queue is full.
+	 */
+	public Executor getGateExecutor() {
+		return this.gateExecutor;
+	}
+
+	/**
+	 * @return The {@link ExecutorService} of the {@value #LANE_DEFAULT} lane.
+	 */
 	public ExecutorService getExecutorService() {
-		return this.executor;
+		return this.defaultLane.getExecutor();
+	}
+
+	/**
+	 * Stops admitting processes. Processes submitted afterwards are completed
+	 * exceptionally with a {@link RejectedExecutionException}, while queued and running
+	 * processes are left to finish (see {@link #awaitProcesses(long, TimeUnit)}).
+	 */
+	public void shutdown() {
+		this.shutdown = true;
+	}
+
+	/**
+	 * @return Whether this {@link ProcessManager} has been shut down.
+	 */
+	public boolean isShutdown() {
+		return this.shutdown;
+	}
+
+	/**
+	 * Waits for all queued and running processes to finish. Should be called after
+	 * {@link #shutdown()}, otherwise new processes may keep it waiting until the
+	 * timeout.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code timeout}.
+	 * @return Whether all processes have finished, {@code false} if the timeout has
+	 *         elapsed first.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting.
+	 */
+	public boolean awaitProcesses(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+		return awaitProcesses(timeout, unit, p -> false);
+	}
+
+	/**
+	 * Waits for all queued and running processes to finish, except for some. This is
+	 * meant for waiting from within a process, which would otherwise wait for itself.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code timeout}.
+	 * @param exempt
+	 *            The processes not to wait for.
+	 * @return Whether all other processes have finished, {@code false} if the timeout
+	 *         has elapsed first.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting.
+	 * @see #awaitProcesses(long, TimeUnit)
+	 */
+	public boolean awaitProcesses(long timeout, @Nonnull TimeUnit unit, @Nonnull Predicate<LithiumProcess<?>> exempt)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (this.drained) {
+			while (!this.processes.stream().allMatch(exempt)) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0)
+					return false;
+
+				TimeUnit.NANOSECONDS.timedWait(this.drained, remaining);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Shuts this {@link ProcessManager} down for good: stops admitting processes, stops
+	 * the {@link ProcessWatchdog} and the deadline timer, and shuts down the executors
+	 * of all lanes, including the {@link ExecutorService} this {@link ProcessManager}
+	 * was created with. Should be called once processes have been drained and
+	 * everything else using those executors (such as a
+	 * {@link com.github.markozajc.lithium.data.properties.PropertyManager}) has been
+	 * closed.
+	 */
+	public void close() {
+		this.shutdown = true;
+		this.watchdog.stop();
+		this.deadlineTimer.shutdownNow();
+		this.gateExecutor.shutdown();
+		for (ExecutionLane lane : this.lanes.values())
+			lane.getExecutor().shutdown();
 	}
 
 }
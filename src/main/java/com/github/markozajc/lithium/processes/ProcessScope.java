@@ -0,0 +1,241 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.markozajc.lithium.processes.context.ProcessContext;
+
+/**
+ * A scope for child tasks of a {@link LithiumProcess}, opened with
+ * {@link ProcessContext#openScope()}. Each forked task runs as a
+ * {@link ChildProcess} on the {@value ProcessManager#LANE_UNBOUND} lane, shares its
+ * parent's context and shows up in {@link ProcessManager#getProcesses()} with the
+ * parent as its {@link LithiumProcess#getParent()}.
+ * <p>
+ * Children don't outlive the scope: they are cancelled when the parent is cancelled
+ * and when the scope is closed, and closing the scope waits (for up to
+ * {@value #CLOSE_TIMEOUT} milliseconds) for them to stop, so a scope should be used
+ * with try-with-resources. By default, a failing child also cancels its siblings.
+ *
+ * <pre>
+ * try (ProcessScope&lt;User&gt; scope = context.openScope()) {
+ * 	for (long id : ids)
+ * 		scope.fork(() -&gt; fetchUser(id));
+ *
+ * 	List&lt;User&gt; users = scope.joinAll();
+ * }
+ * </pre>
+ *
+ * @author Marko Zajc
+ *
+ * @param <T>
+ *            The result type of the children.
+ */
+public class ProcessScope<T> implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProcessScope.class);
+
+	/**
+	 * How long {@link #close()} waits for cancelled children to stop, in milliseconds.
+	 */
+	public static final long CLOSE_TIMEOUT = 5000;
+
+	private final ProcessManager manager;
+	private final LithiumProcess<?> parent;
+	private final boolean cancelOnFailure;
+	private final Queue<ChildProcess<T>> children = new ConcurrentLinkedQueue<>();
+	private final Queue<CompletableFuture<T>> results = new ConcurrentLinkedQueue<>();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private final Runnable canceller = this::cancel;
+	private volatile boolean closed;
+
+	/**
+	 * Creates a new {@link ProcessScope}. Use {@link ProcessContext#openScope()}
+	 * instead.
+	 *
+	 * @param manager
+	 *            The {@link ProcessManager} to run the children on.
+	 * @param parent
+	 *            The parent {@link LithiumProcess}.
+	 * @param cancelOnFailure
+	 *            Whether a failing child should cancel the other children.
+	 */
+	public ProcessScope(@Nonnull ProcessManager manager, @Nonnull LithiumProcess<?> parent, boolean cancelOnFailure) {
+		this.manager = manager;
+		this.parent = parent;
+		this.cancelOnFailure = cancelOnFailure;
+		parent.addCancelListener(this.canceller);
+	}
+
+	/**
+	 * Forks a child task.
+	 *
+	 * @param task
+	 *            The task.
+	 * @return The {@link Future} of the task. Cancelling it cancels the child.
+	 * @throws IllegalStateException
+	 *             If this scope has been closed.
+	 */
+	@Nonnull
+	public Future<T> fork(@Nonnull Callable<? extends T> task) {
+		if (this.closed)
+			throw new IllegalStateException("The scope has been closed.");
+
+		ChildProcess<T> child = new ChildProcess<>(this.parent, task);
+		this.children.add(child);
+		CompletableFuture<T> result = this.manager.runUnboundProcess(child);
+		this.results.add(result);
+		result.whenComplete((r, t) -> {
+			this.children.remove(child);
+			if (t instanceof CancellationException) {
+				child.cancel(true);
+				// Cancelling the returned Future cancels the process too
+
+			} else if (t != null && this.failure.compareAndSet(null, t) && this.cancelOnFailure) {
+				cancel();
+			}
+		});
+
+		if (this.parent.isCancelled() || this.closed)
+			child.cancel(true);
+		// Catches a cancellation that happened while forking
+
+		return result;
+	}
+
+	/**
+	 * Waits for all children forked so far to finish.
+	 *
+	 * @return The results of the children, in the order they were forked.
+	 * @throws ExecutionException
+	 *             If a child has failed, with the first failure as the cause.
+	 * @throws CancellationException
+	 *             If the children were cancelled.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting.
+	 */
+	@Nonnull
+	public List<T> joinAll() throws InterruptedException, ExecutionException {
+		List<T> values = new ArrayList<>(this.results.size());
+		for (CompletableFuture<T> result : this.results) {
+			try {
+				values.add(result.get());
+			} catch (ExecutionException | CancellationException e) {
+				Throwable firstFailure = this.failure.get();
+				if (firstFailure != null)
+					throw new ExecutionException(firstFailure);
+
+				throw e;
+			}
+			// Reports the failure that caused the cancellation rather than the cancellation
+		}
+
+		return values;
+	}
+
+	/**
+	 * Waits for the first child to finish successfully and cancels the rest. Scopes
+	 * used this way should usually be opened with
+	 * {@link ProcessContext#openScope(boolean)} and {@code cancelOnFailure} set to
+	 * {@code false}, so a failing child doesn't cancel the ones that may still
+	 * succeed.
+	 *
+	 * @return The result of the first successful child.
+	 * @throws ExecutionException
+	 *             If no child has finished successfully, with the first failure as the
+	 *             cause.
+	 * @throws CancellationException
+	 *             If the children were cancelled.
+	 * @throws IllegalStateException
+	 *             If no children have been forked.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting.
+	 */
+	public T joinFirst() throws InterruptedException, ExecutionException {
+		List<CompletableFuture<T>> snapshot = new ArrayList<>(this.results);
+		if (snapshot.isEmpty())
+			throw new IllegalStateException("No children have been forked.");
+		CompletableFuture<T> first = new CompletableFuture<>();
+		for (CompletableFuture<T> result : snapshot)
+			result.thenAccept(first::complete);
+
+		try {
+			CompletableFuture.anyOf(first, CompletableFuture.allOf(snapshot.toArray(new CompletableFuture<?>[0])))
+					.get();
+		} catch (ExecutionException | CancellationException e) {
+			// Every child has finished, but some have failed
+		}
+
+		for (CompletableFuture<T> result : snapshot) {
+			if (result.isDone() && !result.isCompletedExceptionally()) {
+				cancel();
+				return result.join();
+			}
+		}
+		// Looks at the children themselves, first may not have been completed yet
+
+		Throwable firstFailure = this.failure.get();
+		if (firstFailure != null)
+			throw new ExecutionException(firstFailure);
+
+		throw new CancellationException();
+	}
+
+	/**
+	 * Cancels and interrupts all unfinished children.
+	 */
+	public void cancel() {
+		ChildProcess<T> child;
+		while ((child = this.children.poll()) != null)
+			child.cancel(true);
+	}
+
+	/**
+	 * @return The unfinished children of this scope.
+	 */
+	@Nonnull
+	public List<ChildProcess<T>> getChildren() {
+		return new ArrayList<>(this.children);
+	}
+
+	/**
+	 * Closes this scope, cancelling all unfinished children, and waits for up to
+	 * {@value #CLOSE_TIMEOUT} milliseconds for them to stop. Children that ignore
+	 * cancellation for longer are logged and left running. If interrupted while
+	 * waiting, this stops waiting and keeps the interrupt flag set.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.parent.removeCancelListener(this.canceller);
+		cancel();
+
+		try {
+			CompletableFuture.allOf(this.results.toArray(new CompletableFuture<?>[0]))
+					.get(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException | CancellationException e) {
+			// Children have stopped, failures have been reported to joinAll() and joinFirst()
+		} catch (TimeoutException e) {
+			LOG.warn("{} children of process {} didn't stop within {} ms of being cancelled.",
+				this.results.stream().filter(r -> !r.isDone()).count(), this.parent.getId(), CLOSE_TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,272 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches running {@link LithiumProcess}es of a {@link ProcessManager} and reports
+ * those that run past their threshold (see
+ * {@link LithiumProcess#getWatchdogThreshold()}). The stack of a slow process's
+ * thread is sampled several times, one sampling period apart, so a report shows
+ * whether the process is stuck in one place or slowly progressing. Each incident is
+ * reported once.
+ * <p>
+ * The watchdog runs on its own daemon thread and only reads state that processes
+ * publish through volatile fields, so it adds no locking to submitting or running
+ * processes.
+ *
+ * @author Marko Zajc
+ */
+public class ProcessWatchdog {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProcessWatchdog.class);
+
+	private static final long DEFAULT_THRESHOLD = TimeUnit.SECONDS.toMillis(30);
+	private static final long DEFAULT_PERIOD = TimeUnit.SECONDS.toMillis(1);
+	private static final int DEFAULT_SAMPLES = 3;
+
+	private final ProcessManager manager;
+	private final ScheduledExecutorService timer;
+	private final List<Consumer<Incident>> reporters = new CopyOnWriteArrayList<>();
+	private final Map<LithiumProcess<?>, Incident> incidents = new HashMap<>();
+	// Only accessed by the timer thread
+	private final int samples;
+	private volatile long defaultThreshold = DEFAULT_THRESHOLD;
+
+	/**
+	 * An incident of a process running past its threshold.
+	 *
+	 * @author Marko Zajc
+	 */
+	public static class Incident {
+
+		private final LithiumProcess<?> process;
+		private final Thread thread;
+		private final long startedNanos;
+		private final List<StackTraceElement[]> stackSamples = new ArrayList<>();
+		private long elapsedNanos;
+		private boolean finished;
+		private boolean reported;
+
+		Incident(LithiumProcess<?> process, Thread thread, long startedNanos) {
+			this.process = process;
+			this.thread = thread;
+			this.startedNanos = startedNanos;
+		}
+
+		/**
+		 * @return The slow {@link LithiumProcess}.
+		 */
+		@Nonnull
+		public LithiumProcess<?> getProcess() {
+			return this.process;
+		}
+
+		/**
+		 * @return The {@link Thread} that was running the process.
+		 */
+		@Nonnull
+		public Thread getThread() {
+			return this.thread;
+		}
+
+		/**
+		 * @return How long the process had been running when the last sample was taken,
+		 *         in nanoseconds.
+		 */
+		public long getElapsedNanos() {
+			return this.elapsedNanos;
+		}
+
+		/**
+		 * @return Whether the process has finished before all samples could be taken.
+		 */
+		public boolean isFinished() {
+			return this.finished;
+		}
+
+		/**
+		 * @return The sampled stacks of the thread, oldest first.
+		 */
+		@Nonnull
+		public List<StackTraceElement[]> getStackSamples() {
+			return Collections.unmodifiableList(this.stackSamples);
+		}
+
+	}
+
+	/**
+	 * Creates and starts a new {@link ProcessWatchdog}, checking processes every second
+	 * and taking three stack samples of each slow process.
+	 *
+	 * @param manager
+	 *            The {@link ProcessManager} to watch.
+	 */
+	public ProcessWatchdog(@Nonnull ProcessManager manager) {
+		this(manager, DEFAULT_PERIOD, TimeUnit.MILLISECONDS, DEFAULT_SAMPLES);
+	}
+
+	/**
+	 * Creates and starts a new {@link ProcessWatchdog}.
+	 *
+	 * @param manager
+	 *            The {@link ProcessManager} to watch.
+	 * @param period
+	 *            How often to check processes (and sample their stacks).
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code period}.
+	 * @param samples
+	 *            How many stack samples to take before reporting an incident.
+	 */
+	public ProcessWatchdog(@Nonnull ProcessManager manager, long period, @Nonnull TimeUnit unit, int samples) {
+		if (samples < 1)
+			throw new IllegalArgumentException("At least one sample must be taken.");
+
+		this.manager = manager;
+		this.samples = samples;
+		this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "lithium-process-watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.timer.scheduleAtFixedRate(this::check, period, period, unit);
+	}
+
+	private void check() {
+		try {
+			long now = System.nanoTime();
+			for (LithiumProcess<?> process : this.manager.getProcesses())
+				check(process, now);
+
+			Iterator<Incident> iterator = this.incidents.values().iterator();
+			while (iterator.hasNext()) {
+				Incident incident = iterator.next();
+				if (incident.process.getThread() != incident.thread
+						|| incident.process.getStartedNanos() != incident.startedNanos) {
+					incident.finished = true;
+					if (!incident.reported)
+						report(incident);
+
+					iterator.remove();
+				}
+			}
+			// Forgets incidents of finished processes, reporting ones that finished before
+			// they could be fully sampled
+
+		} catch (Throwable t) { // NOSONAR
+			LOG.error("Caught an exception in the process watchdog", t);
+			// Keeps the timer alive
+		}
+	}
+
+	private void check(LithiumProcess<?> process, long now) {
+		Thread thread = process.getThread();
+		if (thread == null)
+			return;
+		// Not running yet
+
+		long started = process.getStartedNanos();
+		long threshold = process.getWatchdogThreshold();
+		if (threshold == LithiumProcess.WATCHDOG_DISABLED)
+			return;
+		if (threshold < 0)
+			threshold = this.defaultThreshold;
+
+		if (now - started < TimeUnit.MILLISECONDS.toNanos(threshold))
+			return;
+
+		Incident incident = this.incidents.computeIfAbsent(process, p -> new Incident(p, thread, started));
+		if (incident.reported || incident.thread != thread)
+			return;
+
+		incident.stackSamples.add(thread.getStackTrace());
+		incident.elapsedNanos = now - started;
+		if (incident.stackSamples.size() >= this.samples)
+			report(incident);
+	}
+
+	private void report(Incident incident) {
+		incident.reported = true;
+
+		if (LOG.isWarnEnabled()) {
+			StringBuilder message = new StringBuilder();
+			message.append("Process ")
+					.append(incident.process.getClass().getName())
+					.append(" on thread ")
+					.append(incident.thread.getName())
+					.append(incident.finished ? " has finished after running for over " : " has been running for ")
+					.append(TimeUnit.NANOSECONDS.toMillis(incident.elapsedNanos))
+					.append(" ms. Sampled stacks:");
+			for (int i = 0; i < incident.stackSamples.size(); i++) {
+				message.append("\n  Sample ").append(i + 1).append(':');
+				for (StackTraceElement element : incident.stackSamples.get(i))
+					message.append("\n    at ").append(element);
+			}
+
+			LOG.warn(message.toString());
+		}
+
+		for (Consumer<Incident> reporter : this.reporters) {
+			try {
+				reporter.accept(incident);
+			} catch (Throwable t) { // NOSONAR
+				LOG.error("Caught an exception in a watchdog reporter", t);
+			}
+		}
+	}
+
+	/**
+	 * Registers a reporter, called (on the watchdog's thread) once for each incident,
+	 * in addition to it being logged.
+	 *
+	 * @param reporter
+	 *            The reporter.
+	 */
+	public void addReporter(@Nonnull Consumer<Incident> reporter) {
+		this.reporters.add(reporter);
+	}
+
+	/**
+	 * Unregisters a reporter.
+	 *
+	 * @param reporter
+	 *            The reporter.
+	 */
+	public void removeReporter(@Nonnull Consumer<Incident> reporter) {
+		this.reporters.remove(reporter);
+	}
+
+	/**
+	 * Sets the threshold used for processes that don't specify their own.
+	 *
+	 * @param threshold
+	 *            The threshold.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code threshold}.
+	 */
+	public void setDefaultThreshold(long threshold, @Nonnull TimeUnit unit) {
+		this.defaultThreshold = unit.toMillis(threshold);
+	}
+
+	/**
+	 * Stops the watchdog.
+	 */
+	public void stop() {
+		this.timer.shutdownNow();
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * An {@link ExecutionLane} that runs each process on its own virtual thread (see
+ * {@link VirtualThreads}). Processes that block, for example on a
+ * {@link com.github.markozajc.lithium.utilities.MessageLock} or a property, don't
+ * hold a platform thread while doing so. Concurrency is still bounded by a
+ * {@link Semaphore}: a process waits for a permit (on its virtual thread) before it
+ * starts, and that wait is counted as its queue wait.
+ *
+ * @author Marko Zajc
+ */
+public class VirtualExecutionLane extends ExecutionLane {
+
+	private final Semaphore permits;
+	private final int concurrency;
+
+	/**
+	 * Creates a new {@link VirtualExecutionLane}.
+	 *
+	 * @param name
+	 *            The lane's name, also used as the prefix of the threads' names.
+	 * @param concurrency
+	 *            The maximum number of processes running at once.
+	 * @param queueLimit
+	 *            The maximum number of processes waiting for a permit.
+	 * @throws UnsupportedOperationException
+	 *             If virtual threads are not available on this runtime.
+	 */
+	public VirtualExecutionLane(@Nonnull String name, @Nonnegative int concurrency, @Nonnegative int queueLimit) {
+		super(name, VirtualThreads.newExecutor("lithium-" + name), queueLimit);
+		this.permits = new Semaphore(concurrency, true);
+		this.concurrency = concurrency;
+	}
+
+	@Override
+	Future<?> submit(LithiumProcess<?> process, Runnable task) {
+		return getExecutor().submit(() -> {
+			this.permits.acquireUninterruptibly();
+			// Processes are only interrupted once they've started, which is after this
+			try {
+				task.run();
+			} finally {
+				this.permits.release();
+			}
+		});
+	}
+
+	/**
+	 * @return The maximum number of processes running at once.
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * @return The number of free permits.
+	 */
+	public int getAvailablePermits() {
+		return this.permits.availablePermits();
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Access to virtual threads, which are only available on Java 21 and newer. This is
+ * the fallback used on older runtimes; the multi-release JAR contains a Java 21
+ * variant of this class (in {@code META-INF/versions/21}) that actually creates
+ * them.
+ *
+ * @author Marko Zajc
+ */
+public final class VirtualThreads {
+
+	private VirtualThreads() {}
+
+	/**
+	 * @return Whether virtual threads are available on this runtime.
+	 */
+	public static boolean isSupported() {
+		return false;
+	}
+
+	/**
+	 * Creates an {@link ExecutorService} that runs each task on a new virtual thread.
+	 *
+	 * @param name
+	 *            The prefix of the threads' names.
+	 * @return The new {@link ExecutorService}.
+	 * @throws UnsupportedOperationException
+	 *             If virtual threads are not available on this runtime.
+	 */
+	@Nonnull
+	public static ExecutorService newExecutor(@Nonnull String name) {
+		throw new UnsupportedOperationException("Virtual threads require Java 21 or newer.");
+	}
+
+}
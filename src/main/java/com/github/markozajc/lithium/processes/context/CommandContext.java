@@ -1,9 +1,14 @@
 package com.github.markozajc.lithium.processes.context;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.annotation.Nonnull;
 
 import com.github.markozajc.lithium.Lithium;
 import com.github.markozajc.lithium.commands.Command;
+import com.github.markozajc.lithium.commands.CommandCategory;
+import com.github.markozajc.lithium.commands.CommandList;
+import com.github.markozajc.lithium.commands.utils.ParsedInvocation;
 
 import net.dv8tion.jda.core.entities.TextChannel;
 import net.dv8tion.jda.core.entities.User;
@@ -11,11 +16,14 @@ import net.dv8tion.jda.core.events.message.guild.GuildMessageReceivedEvent;
 
 public class CommandContext extends ProcessContext {
 
+	private final CommandList commands;
 	private final Command command;
 	private final GuildMessageReceivedEvent event;
+	private final ParsedInvocation invocation;
 
 	/**
-	 * Creates a new {@link CommandContext}.
+	 * Creates a new {@link CommandContext} for a {@link Command} from the current
+	 * {@link CommandList}, parsing the invocation from the event's message.
 	 *
 	 * @param lithium
 	 *            The {@link Lithium} instance.
@@ -27,9 +35,72 @@ public class CommandContext extends ProcessContext {
 	 */
 	public CommandContext(@Nonnull Lithium lithium, @Nonnull GuildMessageReceivedEvent event,
 			@Nonnull Command command) {
+		this(lithium, event, command, parseInvocation(lithium, event, getCommands(lithium), command));
+	}
+
+	private static CommandList getCommands(Lithium lithium) {
+		CommandList commands = lithium.getCommands();
+		if (commands == null)
+			throw new IllegalStateException("Commands have not been loaded yet.");
+
+		return commands;
+	}
+
+	private static ParsedInvocation parseInvocation(Lithium lithium, GuildMessageReceivedEvent event,
+			CommandList commands, Command command) {
+		ParsedInvocation invocation = ParsedInvocation.parse(event.getMessage().getContentRaw(),
+			lithium.getPrefixProvider()
+					.getMatcher(event.getGuild().getIdLong(), event.getJDA().getSelfUser().getIdLong()));
+		return invocation.withSubcommandDepth(Math.min(commands.getDepth(command), invocation.getTokenCount()));
+		// Assumes the message addresses the given (sub)command
+	}
+
+	/**
+	 * Creates a new {@link CommandContext} for a {@link Command} from the current
+	 * {@link CommandList}.
+	 *
+	 * @param lithium
+	 *            The {@link Lithium} instance.
+	 * @param event
+	 *            The {@link GuildMessageReceivedEvent} that was determined to have
+	 *            requested the {@link Command} execution.
+	 * @param command
+	 *            The {@link Command} to run.
+	 * @param invocation
+	 *            The {@link ParsedInvocation} of the event's message.
+	 */
+	public CommandContext(@Nonnull Lithium lithium, @Nonnull GuildMessageReceivedEvent event, @Nonnull Command command,
+			@Nonnull ParsedInvocation invocation) {
+		this(lithium, event, getCommands(lithium), command, invocation);
+	}
+
+	/**
+	 * Creates a new {@link CommandContext}. Its deadline is set from
+	 * {@link Command#getDeadline()}.
+	 *
+	 * @param lithium
+	 *            The {@link Lithium} instance.
+	 * @param event
+	 *            The {@link GuildMessageReceivedEvent} that was determined to have
+	 *            requested the {@link Command} execution.
+	 * @param commands
+	 *            The {@link CommandList} the {@link Command} was looked up in.
+	 * @param command
+	 *            The {@link Command} to run.
+	 * @param invocation
+	 *            The {@link ParsedInvocation} of the event's message.
+	 */
+	public CommandContext(@Nonnull Lithium lithium, @Nonnull GuildMessageReceivedEvent event,
+			@Nonnull CommandList commands, @Nonnull Command command, @Nonnull ParsedInvocation invocation) {
 		super(lithium, event.getJDA());
+		this.commands = commands;
 		this.command = command;
 		this.event = event;
+		this.invocation = invocation;
+
+		long deadline = command.getDeadline();
+		if (deadline != CommandCategory.NO_DEADLINE)
+			setDeadline(deadline, TimeUnit.MILLISECONDS);
 	}
 
 	/**
@@ -40,6 +111,24 @@ public class CommandContext extends ProcessContext {
 		return this.command;
 	}
 
+	/**
+	 * @return The {@link CommandList} the {@link Command} was looked up in. This stays
+	 *         the same even if the list is swapped while the command runs.
+	 */
+	@Nonnull
+	public CommandList getCommands() {
+		return this.commands;
+	}
+
+	/**
+	 * A shortcut to {@link CommandList#getId(Command)}.
+	 *
+	 * @return The ID of this {@link CommandContext}'s {@link Command}.
+	 */
+	public int getCommandId() {
+		return this.getCommands().getId(this.getCommand());
+	}
+
 	/**
 	 * @return The {@link GuildMessageReceivedEvent} that was determined to have
 	 *         requested the {@link Command} execution.
@@ -49,6 +138,14 @@ public class CommandContext extends ProcessContext {
 		return this.event;
 	}
 
+	/**
+	 * @return The {@link ParsedInvocation} of the event's message.
+	 */
+	@Nonnull
+	public ParsedInvocation getInvocation() {
+		return this.invocation;
+	}
+
 	/**
 	 * A shortcut to {@link GuildMessageReceivedEvent#getChannel()}.
 	 *
@@ -69,4 +166,14 @@ public class CommandContext extends ProcessContext {
 		return this.getEvent().getAuthor();
 	}
 
+	@Override
+	public long getUserId() {
+		return this.getEvent().getAuthor().getIdLong();
+	}
+
+	@Override
+	public long getGuildId() {
+		return this.getEvent().getGuild().getIdLong();
+	}
+
 }
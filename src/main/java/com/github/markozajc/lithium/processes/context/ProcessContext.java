@@ -1,9 +1,13 @@
 package com.github.markozajc.lithium.processes.context;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.annotation.Nonnull;
 
 import com.github.markozajc.lithium.Lithium;
 import com.github.markozajc.lithium.processes.LithiumProcess;
+import com.github.markozajc.lithium.processes.ProcessManager;
+import com.github.markozajc.lithium.processes.ProcessScope;
 
 import net.dv8tion.jda.core.JDA;
 
@@ -13,6 +17,8 @@ public class ProcessContext {
 	private final Lithium lithium;
 	@Nonnull
 	private final JDA jda;
+	private volatile long deadlineNanos;
+	private volatile boolean deadline;
 
 	/**
 	 * Creates a new {@link ProcessContext}.
@@ -43,4 +49,93 @@ public class ProcessContext {
 		return this.jda;
 	}
 
+	/**
+	 * @return The ID of the user this {@link LithiumProcess} runs for or {@code 0} if
+	 *         it doesn't run for a particular user.
+	 */
+	public long getUserId() {
+		return 0;
+	}
+
+	/**
+	 * @return The ID of the guild this {@link LithiumProcess} runs in or {@code 0} if
+	 *         it doesn't run in a particular guild.
+	 */
+	public long getGuildId() {
+		return 0;
+	}
+
+	/**
+	 * Opens a {@link ProcessScope} for forking child tasks of the calling process. A
+	 * failing child cancels the other children.
+	 *
+	 * @return The new {@link ProcessScope}.
+	 * @throws IllegalStateException
+	 *             If not called from a running {@link LithiumProcess}.
+	 */
+	@Nonnull
+	public <T> ProcessScope<T> openScope() {
+		return openScope(true);
+	}
+
+	/**
+	 * Opens a {@link ProcessScope} for forking child tasks of the calling process.
+	 *
+	 * @param cancelOnFailure
+	 *            Whether a failing child should cancel the other children.
+	 * @return The new {@link ProcessScope}.
+	 * @throws IllegalStateException
+	 *             If not called from a running {@link LithiumProcess}.
+	 */
+	@Nonnull
+	public <T> ProcessScope<T> openScope(boolean cancelOnFailure) {
+		LithiumProcess<?> parent = LithiumProcess.current();
+		if (parent == null || parent.getContext() != this)
+			throw new IllegalStateException("Scopes can only be opened from a process running with this context.");
+
+		return new ProcessScope<>(this.lithium.getProcessManager(), parent, cancelOnFailure);
+	}
+
+	/**
+	 * Sets the deadline of this {@link LithiumProcess}, counting from now. The
+	 * {@link ProcessManager} cancels processes that are still queued or running when
+	 * their deadline passes. The deadline must be set before the process is submitted
+	 * to be enforced.
+	 *
+	 * @param timeout
+	 *            How long the process may wait for a thread and run in total.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code timeout}.
+	 */
+	public void setDeadline(long timeout, @Nonnull TimeUnit unit) {
+		this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+		this.deadline = true;
+	}
+
+	/**
+	 * @return Whether this {@link LithiumProcess} has a deadline.
+	 */
+	public boolean hasDeadline() {
+		return this.deadline;
+	}
+
+	/**
+	 * @return The time left until this {@link LithiumProcess}'s deadline in
+	 *         nanoseconds, {@code 0} if it has passed, or {@link Long#MAX_VALUE} if
+	 *         there's no deadline.
+	 */
+	public long getRemainingNanos() {
+		if (!this.deadline)
+			return Long.MAX_VALUE;
+
+		return Math.max(this.deadlineNanos - System.nanoTime(), 0);
+	}
+
+	/**
+	 * @return Whether this {@link LithiumProcess}'s deadline has passed.
+	 */
+	public boolean isExpired() {
+		return getRemainingNanos() == 0;
+	}
+
 }
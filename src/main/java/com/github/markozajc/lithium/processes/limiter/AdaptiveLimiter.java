@@ -0,0 +1,161 @@
+package com.github.markozajc.lithium.processes.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.processes.ExecutionLane;
+
+/**
+ * An adaptive concurrency limit for an {@link ExecutionLane}, adjusted with AIMD
+ * (additive increase, multiplicative decrease) on the time admitted processes wait
+ * for a thread. While processes start within the target queue wait and the limit is
+ * in use, it grows by about one per {@code limit} processes; once they wait longer,
+ * it shrinks by 10%, at most once per target interval so a single burst doesn't
+ * collapse it. Processes over the limit are shed instead of queueing indefinitely.
+ * <p>
+ * Admission and sampling are lock-free.
+ *
+ * @author Marko Zajc
+ */
+public class AdaptiveLimiter {
+
+	private static final double BACKOFF = 0.9;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long targetNanos;
+	private final AtomicLong limit;
+	// Holds the bits of a double, so the limit can grow by fractions
+	private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder shed = new LongAdder();
+
+	/**
+	 * Creates a new {@link AdaptiveLimiter} with an initial limit of 64 (between 8 and
+	 * 1024) and a target queue wait of 100 milliseconds.
+	 */
+	public AdaptiveLimiter() {
+		this(64, 8, 1024, 100, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a new {@link AdaptiveLimiter}.
+	 *
+	 * @param initialLimit
+	 *            The initial number of processes allowed in flight (queued or running).
+	 * @param minLimit
+	 *            The lowest the limit can drop to.
+	 * @param maxLimit
+	 *            The highest the limit can grow to.
+	 * @param targetQueueWait
+	 *            The queue wait above which the limit is decreased.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code targetQueueWait}.
+	 */
+	public AdaptiveLimiter(@Nonnegative int initialLimit, @Nonnegative int minLimit, @Nonnegative int maxLimit,
+			long targetQueueWait, @Nonnull TimeUnit unit) {
+		if (minLimit < 1 || minLimit > maxLimit)
+			throw new IllegalArgumentException("The limits must satisfy 1 <= minLimit <= maxLimit.");
+
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.targetNanos = unit.toNanos(targetQueueWait);
+		this.limit = new AtomicLong(
+			Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+	}
+
+	/**
+	 * Admits a process if the number of processes in flight is below the limit. Every
+	 * admitted process must later be released with {@link #release()}.
+	 *
+	 * @return Whether the process was admitted, {@code false} if it should be shed.
+	 */
+	public boolean tryAcquire() {
+		int current;
+		do {
+			current = this.inFlight.get();
+			if (current >= getLimit()) {
+				this.shed.increment();
+				return false;
+			}
+		} while (!this.inFlight.compareAndSet(current, current + 1));
+
+		this.admitted.increment();
+		return true;
+	}
+
+	/**
+	 * Adjusts the limit with an admitted process's queue wait. Should be called when
+	 * the process starts running.
+	 *
+	 * @param queueWaitNanos
+	 *            The time the process has waited for a thread, in nanoseconds.
+	 */
+	public void onStart(long queueWaitNanos) {
+		if (queueWaitNanos > this.targetNanos) {
+			long now = System.nanoTime();
+			long last = this.lastDecrease.get();
+			if (now - last >= this.targetNanos && this.lastDecrease.compareAndSet(last, now))
+				update(-1);
+			// Only one decrease per target interval
+
+		} else if (this.inFlight.get() * 2 >= getLimit()) {
+			update(1);
+			// Only grows the limit while it's actually in use
+		}
+	}
+
+	private void update(int direction) {
+		long bits;
+		double next;
+		do {
+			bits = this.limit.get();
+			double current = Double.longBitsToDouble(bits);
+			next = direction > 0 ? Math.min(this.maxLimit, current + 1 / current)
+					: Math.max(this.minLimit, current * BACKOFF);
+		} while (!this.limit.compareAndSet(bits, Double.doubleToLongBits(next)));
+	}
+
+	/**
+	 * Releases an admitted process, either because it has finished or because it
+	 * didn't get to run at all.
+	 */
+	public void release() {
+		this.inFlight.decrementAndGet();
+	}
+
+	/**
+	 * @return The current limit.
+	 */
+	public int getLimit() {
+		return (int) Double.longBitsToDouble(this.limit.get());
+	}
+
+	/**
+	 * @return The number of admitted processes that haven't been released yet.
+	 */
+	public int getInFlight() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * @return The number of admitted processes.
+	 */
+	public long getAdmitted() {
+		return this.admitted.sum();
+	}
+
+	/**
+	 * @return The number of shed processes.
+	 */
+	public long getShed() {
+		return this.shed.sum();
+	}
+
+}
@@ -2,13 +2,25 @@ package com.github.markozajc.lithium.processes.limiter;
 
 import com.github.markozajc.lithium.Constants;
 import com.github.markozajc.lithium.handlers.CommandHandler.CommandListener;
-import com.github.markozajc.lithium.processes.LithiumProcess;
 import com.github.markozajc.lithium.processes.ProcessManager;
 import com.github.markozajc.lithium.processes.context.CommandContext;
 import com.github.markozajc.lithium.utilities.dialogs.message.EmbedDialog;
 import com.github.markozajc.lithium.utilities.dialogs.message.prepared.PreparedDialog;
 import com.github.markozajc.lithium.utilities.dialogs.message.prepared.PreparedEmbedDialog;
 
+/**
+ * Limits the number of commands a user can have running at once. The limit is
+ * enforced atomically by the {@link ProcessManager} (see
+ * {@link ProcessManager#setUserProcessLimit(int)}); this listener only reads the
+ * user's counter of commands (see
+ * {@link ProcessManager#getLimitedUserProcessCount(long)}) to tell them why their
+ * command was not run, and does the same for commands that raced past it and were
+ * rejected by the {@link ProcessManager}. Dialogs and other processes that aren't
+ * {@link com.github.markozajc.lithium.processes.LithiumProcess#isLimited()} don't
+ * count.
+ *
+ * @author Marko Zajc
+ */
 public class CommandProcessLimiter implements CommandListener {
 
 	private final int maxCommands;
@@ -29,19 +41,12 @@ public class CommandProcessLimiter implements CommandListener {
 		this.maxCommands = maxCommands;
 		this.processes = processes;
 		this.limitHitDialog = limitHitDialog;
+		processes.setUserProcessLimit(maxCommands);
 	}
 
 	@Override
 	public boolean canExecuteCommand(CommandContext context) throws Throwable {
-		long running = this.processes.getProcesses()
-				.stream()
-				.map(LithiumProcess::getContext)
-				.filter(c -> c instanceof CommandContext)
-				.map(c -> ((CommandContext) c).getUser().getIdLong())
-				.filter(id -> id == context.getUser().getIdLong())
-				.count();
-
-		if (running >= this.maxCommands) {
+		if (this.processes.getLimitedUserProcessCount(context.getUserId()) >= this.maxCommands) {
 			this.limitHitDialog.generate(context).display(context.getChannel());
 			return false;
 		}
@@ -49,4 +54,10 @@ public class CommandProcessLimiter implements CommandListener {
 		return true;
 	}
 
+	@Override
+	public void onProcessLimitHit(CommandContext context, ProcessLimitException exception) {
+		if (exception.getScope() == ProcessLimitException.Scope.USER)
+			this.limitHitDialog.generate(context).display(context.getChannel());
+	}
+
 }
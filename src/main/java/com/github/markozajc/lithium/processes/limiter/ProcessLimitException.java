@@ -0,0 +1,62 @@
+package com.github.markozajc.lithium.processes.limiter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.processes.ProcessManager;
+
+/**
+ * Indicates that a process was not submitted because its user or guild has reached
+ * its process limit (see {@link ProcessManager#setUserProcessLimit(int)} and
+ * {@link ProcessManager#setGuildProcessLimit(int)}).
+ *
+ * @author Marko Zajc
+ */
+public class ProcessLimitException extends RejectedExecutionException {
+
+	/**
+	 * What the exceeded limit applies to.
+	 *
+	 * @author Marko Zajc
+	 */
+	public enum Scope {
+		USER,
+		GUILD
+	}
+
+	private final Scope scope;
+	private final long id;
+	private final int limit;
+
+	public ProcessLimitException(@Nonnull Scope scope, long id, int limit) {
+		super("The process limit of " + limit + " has been reached for " + scope.name().toLowerCase() + " " + id
+				+ ".");
+		this.scope = scope;
+		this.id = id;
+		this.limit = limit;
+	}
+
+	/**
+	 * @return What the exceeded limit applies to.
+	 */
+	@Nonnull
+	public Scope getScope() {
+		return this.scope;
+	}
+
+	/**
+	 * @return The ID of the user or guild that has reached the limit.
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * @return The exceeded limit.
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.github.markozajc.lithium.processes.limiter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nonnull;
+
+import com.github.markozajc.lithium.processes.ExecutionLane;
+
+/**
+ * Indicates that a process was shed because its {@link ExecutionLane} was
+ * overloaded, either by the lane's {@link AdaptiveLimiter} or because its queue was
+ * full.
+ *
+ * @author Marko Zajc
+ */
+public class ProcessShedException extends RejectedExecutionException {
+
+	private final String lane;
+
+	public ProcessShedException(@Nonnull String lane, @Nonnull String reason) {
+		super("Process shed from lane " + lane + ": " + reason);
+		this.lane = lane;
+	}
+
+	/**
+	 * @return The name of the lane that shed the process.
+	 */
+	@Nonnull
+	public String getLane() {
+		return this.lane;
+	}
+
+}
@@ -2,6 +2,7 @@ package com.github.markozajc.lithium.tasks;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -11,6 +12,7 @@ import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.markozajc.lithium.commands.exceptions.runtime.CancelledException;
 import com.github.markozajc.lithium.utilities.MessageLock;
 
 /**
@@ -170,12 +172,19 @@ public class Task {
 
 		@Override
 		public Void get() throws InterruptedException, ExecutionException {
-			return this.lock.receive();
+			try {
+				return this.lock.receive();
+			} catch (CancelledException e) {
+				if (Thread.interrupted())
+					throw new InterruptedException();
+				throw new CancellationException();
+			}
+			// Translates MessageLock's cancellation into the Future contract
 		}
 
 		@Override
 		public Void get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException, ExecutionException {
-			return this.lock.receive();
+			return get();
 		}
 	}
 
@@ -0,0 +1,67 @@
+package com.github.markozajc.lithium.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Per-snowflake (user, channel, ...) cooldowns, used to rate-limit replies that
+ * shouldn't be repeated too often. Acquiring never locks; entries that have cooled
+ * down are pruned every {@value #PRUNE_INTERVAL} newly seen IDs.
+ *
+ * @author Marko Zajc
+ */
+public class Cooldowns {
+
+	private static final int PRUNE_INTERVAL = 1024;
+
+	private final long cooldownMillis;
+	private final SnowflakeMap<AtomicLong> lastAcquired = new SnowflakeMap<>();
+	private final AtomicInteger newIds = new AtomicInteger();
+
+	/**
+	 * Creates a new {@link Cooldowns}.
+	 *
+	 * @param cooldown
+	 *            The minimum time between two acquisitions for the same ID.
+	 * @param unit
+	 *            The {@link TimeUnit} of {@code cooldown}.
+	 */
+	public Cooldowns(long cooldown, @Nonnull TimeUnit unit) {
+		this.cooldownMillis = unit.toMillis(cooldown);
+	}
+
+	/**
+	 * Starts the cooldown for an ID if it's not cooling down already.
+	 *
+	 * @param id
+	 *            The ID.
+	 * @return Whether the cooldown was started, {@code false} if the ID is still
+	 *         cooling down.
+	 */
+	public boolean tryAcquire(long id) {
+		long now = System.currentTimeMillis();
+		AtomicLong last = this.lastAcquired.get(id);
+		if (last == null) {
+			if (this.newIds.incrementAndGet() % PRUNE_INTERVAL == 0)
+				prune(now);
+
+			last = this.lastAcquired.computeIfAbsent(id, k -> new AtomicLong());
+		}
+
+		long lastMillis = last.get();
+		return now - lastMillis >= this.cooldownMillis && last.compareAndSet(lastMillis, now);
+		// The CAS makes sure only one of concurrent callers acquires
+	}
+
+	private void prune(long now) {
+		for (long id : this.lastAcquired.keys()) {
+			AtomicLong last = this.lastAcquired.get(id);
+			if (last != null && now - last.get() >= this.cooldownMillis)
+				this.lastAcquired.remove(id);
+		}
+	}
+
+}
@@ -2,6 +2,7 @@ package com.github.markozajc.lithium.utilities;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -25,11 +26,68 @@ public class EventWaiter implements EventListener {
 		this.lithium = lithium;
 	}
 
+	/**
+	 * Submits a {@link Waiter}. If called from a {@link LithiumProcess}, the waiter is
+	 * removed when that process is cancelled, until the waiter fires.
+	 *
+	 * @param eventClass
+	 *            The class of events to wait for.
+	 * @param waiter
+	 *            The {@link Waiter}.
+	 */
 	@SuppressWarnings("rawtypes")
 	public <T extends Event> void submitWaiter(Class<T> eventClass, Waiter<T> waiter) {
 		Set<Waiter> waiterSet = this.waiters.computeIfAbsent(eventClass,
 			c -> Collections.synchronizedSet(new HashSet<>()));
 		waiterSet.add(waiter);
+
+		LithiumProcess<?> process = LithiumProcess.current();
+		if (process != null)
+			waiter.attach(process, () -> waiterSet.remove(waiter));
+	}
+
+	/**
+	 * Removes all {@link Waiter}s whose parent context runs for a user.
+	 *
+	 * @param userId
+	 *            The user's ID.
+	 * @return The number of removed {@link Waiter}s.
+	 * @see ProcessContext#getUserId()
+	 */
+	public int removeWaitersByUser(long userId) {
+		return removeWaiters(c -> c.getUserId() == userId);
+	}
+
+	/**
+	 * Removes all {@link Waiter}s whose parent context runs in a guild.
+	 *
+	 * @param guildId
+	 *            The guild's ID.
+	 * @return The number of removed {@link Waiter}s.
+	 * @see ProcessContext#getGuildId()
+	 */
+	public int removeWaitersByGuild(long guildId) {
+		return removeWaiters(c -> c.getGuildId() == guildId);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private int removeWaiters(Predicate<ProcessContext> filter) {
+		int removed = 0;
+		for (Set<Waiter> set : this.waiters.values()) {
+			synchronized (set) {
+				Iterator<Waiter> iterator = set.iterator();
+				while (iterator.hasNext()) {
+					Waiter waiter = iterator.next();
+					if (filter.test(waiter.getParentContext())) {
+						iterator.remove();
+						waiter.detach();
+						removed++;
+					}
+				}
+			}
+		}
+
+		return removed;
 	}
 
 	public void handleThrowable(ProcessContext context, Throwable throwable) {
@@ -68,6 +126,8 @@ public class EventWaiter implements EventListener {
 		private final Predicate<T> isRight;
 		private final Predicate<Void> canCleanup;
 		private final ThrowableConsumer<T, Throwable> action;
+		private volatile LithiumProcess<?> owner;
+		private volatile Runnable canceller;
 
 		public Waiter(Predicate<T> isRight, Predicate<Void> canCleanup, ThrowableConsumer<T, Throwable> action,
 				ProcessContext parentContext) {
@@ -93,6 +153,20 @@ public class EventWaiter implements EventListener {
 			this.action.accept(event);
 		}
 
+		void attach(LithiumProcess<?> process, Runnable listener) {
+			this.owner = process;
+			this.canceller = listener;
+			process.addCancelListener(listener);
+		}
+
+		void detach() {
+			LithiumProcess<?> process = this.owner;
+			Runnable listener = this.canceller;
+			if (process != null && listener != null)
+				process.removeCancelListener(listener);
+			// Keeps a dialog loop from piling up one listener per wait on its process
+		}
+
 		public LithiumProcess<T> createProcess(T event, EventWaiter eventWaiter, Class<T> clazz) {
 			return new LithiumProcess<T>(this.parentContext) {
 
@@ -100,6 +174,7 @@ public class EventWaiter implements EventListener {
 				public T call() {
 					try {
 						eventWaiter.waiters.get(clazz).remove(Waiter.this);
+						detach();
 						accept(event);
 					} catch (Throwable t) {
 						eventWaiter.handleThrowable(Waiter.this.parentContext, t);
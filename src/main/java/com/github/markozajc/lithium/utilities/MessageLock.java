@@ -2,11 +2,21 @@ package com.github.markozajc.lithium.utilities;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.github.markozajc.lithium.commands.exceptions.runtime.CancelledException;
 import com.github.markozajc.lithium.commands.exceptions.runtime.TimeoutException;
+import com.github.markozajc.lithium.processes.LithiumProcess;
 
 /**
- * An implementation of CountDownLatch able to transport values
+ * An implementation of CountDownLatch able to transport values. A
+ * {@link #receive()} called from a {@link LithiumProcess} ends with a
+ * {@link CancelledException} when that process is cancelled or interrupted, and
+ * waits no longer than until the process's deadline.
+ * <p>
+ * Waiting uses a {@link ReentrantLock} rather than a monitor, so a virtual thread
+ * blocked in {@link #receive()} doesn't pin its carrier thread.
  *
  * @author Marko Zajc
  *
@@ -30,8 +40,10 @@ public class MessageLock<M> {
 
 	}
 
-	private final Object lock;
-	private boolean sent = false;
+	private final ReentrantLock lock;
+	private final Condition done;
+	private volatile boolean sent = false;
+	private boolean cancelled = false;
 
 	private M message;
 	private Exception exception;
@@ -41,7 +53,8 @@ public class MessageLock<M> {
 	 * called, this object can not be reused.
 	 */
 	public MessageLock() {
-		this.lock = new Object();
+		this.lock = new ReentrantLock();
+		this.done = this.lock.newCondition();
 	}
 
 	/**
@@ -50,11 +63,13 @@ public class MessageLock<M> {
 	 * @param message
 	 */
 	public void send(M message) {
-		this.message = message;
-
-		synchronized (this.lock) {
-			this.lock.notifyAll();
+		this.lock.lock();
+		try {
+			this.message = message;
 			this.sent = true;
+			this.done.signalAll();
+		} finally {
+			this.lock.unlock();
 		}
 	}
 
@@ -65,11 +80,27 @@ public class MessageLock<M> {
 	 * @param e
 	 */
 	public void throwException(Exception e) {
-		this.exception = e;
-
-		synchronized (this.lock) {
-			this.lock.notifyAll();
+		this.lock.lock();
+		try {
+			this.exception = e;
 			this.sent = true;
+			this.done.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Cancels all current and future {@link #receive()} calls, making them throw a
+	 * {@link CancelledException}.
+	 */
+	public void cancel() {
+		this.lock.lock();
+		try {
+			this.cancelled = true;
+			this.done.signalAll();
+		} finally {
+			this.lock.unlock();
 		}
 	}
 
@@ -85,7 +116,11 @@ public class MessageLock<M> {
 	 *             if the sender has encountered a problem and has resorted to
 	 *             {@link #throwException(Exception)}
 	 * @throws TimeoutException
-	 *             if the time ran out
+	 *             if the time ran out, or the calling {@link LithiumProcess}'s deadline
+	 *             has passed
+	 * @throws CancelledException
+	 *             if this lock or the calling {@link LithiumProcess} has been cancelled,
+	 *             or the calling thread has been interrupted
 	 * @throws IllegalArgumentException
 	 *             if timeout is less than 0
 	 */
@@ -93,34 +128,46 @@ public class MessageLock<M> {
 		if (timeout < 0)
 			throw new IllegalArgumentException("Timeout can't be less than 0!");
 
-		long timeoutMillis;
-		long targetMillis;
+		long remainingNanos = timeout == 0 ? -1 : unit.toNanos(timeout);
 
-		if (timeout == 0) {
-			timeoutMillis = -1;
-			targetMillis = -1;
-
-		} else {
-			timeoutMillis = unit.toMillis(timeout);
-			targetMillis = timeoutMillis == 0 ? -1 : System.currentTimeMillis() + timeoutMillis - 50;
+		if (this.sent && this.exception == null)
+			return this.message;
 
+		LithiumProcess<?> process = LithiumProcess.current();
+		if (process != null && process.getContext().hasDeadline()) {
+			long budgetNanos = process.getContext().getRemainingNanos();
+			if (remainingNanos < 0 || budgetNanos < remainingNanos)
+				remainingNanos = budgetNanos;
 		}
+		// Doesn't wait past the process's deadline
+
+		Runnable canceller = this::cancel;
+		if (process != null)
+			process.addCancelListener(canceller);
+		// Wakes this lock up if the waiting process is cancelled
+
+		this.lock.lock();
+		try {
+			while (!this.sent && !this.cancelled) {
+				if (remainingNanos < 0)
+					this.done.await();
+				else if (remainingNanos == 0)
+					break;
+				else
+					remainingNanos = Math.max(this.done.awaitNanos(remainingNanos), 0);
+			}
 
-		if (this.sent || this.message != null)
-			return this.message;
+			if (this.cancelled && !this.sent)
+				throw new CancelledException();
 
-		synchronized (this.lock) {
-			try {
-				if (targetMillis < 0) {
-					while (!this.sent)
-						this.lock.wait();
-				} else {
-					while (System.currentTimeMillis() < targetMillis && !this.sent)
-						this.lock.wait(timeoutMillis);
-				}
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancelledException();
+
+		} finally {
+			this.lock.unlock();
+			if (process != null)
+				process.removeCancelListener(canceller);
 		}
 
 		if (!this.sent)
@@ -0,0 +1,190 @@
+package com.github.markozajc.lithium.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * An immutable trie of prefixes, used to classify a message as a command call (or
+ * not) in a single pass over its first few characters. Most messages are rejected
+ * on the very first character.
+ *
+ * @author Marko Zajc
+ */
+public final class PrefixMatcher {
+
+	/**
+	 * The number of mention prefixes ({@code <@id>} and {@code <@!id>}), which always
+	 * come first in a {@link PrefixMatcher} created by
+	 * {@link #forBot(long, String, List)}.
+	 */
+	public static final int MENTION_PREFIXES = 2;
+
+	private static final char[] NO_LABELS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	private final String[] prefixes;
+	private final Node root;
+	private final long[] asciiStarts = new long[2];
+
+	/**
+	 * Creates a new {@link PrefixMatcher}.
+	 *
+	 * @param prefixes
+	 *            The prefixes to match. The index of a prefix in this {@link Collection}
+	 *            is the value {@link #match(CharSequence)} returns for it.
+	 * @throws IllegalArgumentException
+	 *             If any of the prefixes is empty.
+	 */
+	public PrefixMatcher(@Nonnull Collection<String> prefixes) {
+		this.prefixes = prefixes.toArray(new String[prefixes.size()]);
+		this.root = new Node();
+
+		for (int i = 0; i < this.prefixes.length; i++) {
+			String prefix = this.prefixes[i];
+			if (prefix.isEmpty())
+				throw new IllegalArgumentException("Prefixes can't be empty.");
+
+			char first = prefix.charAt(0);
+			if (first < 128)
+				this.asciiStarts[first >>> 6] |= 1L << first;
+			// Mirrors the trie's first level as a bitmap for the common ASCII case
+
+			Node node = this.root;
+			for (int j = 0; j < prefix.length(); j++)
+				node = node.getOrCreate(prefix.charAt(j));
+
+			if (node.terminal < 0)
+				node.terminal = i;
+			// Duplicates resolve to the first occurrence
+		}
+	}
+
+	/**
+	 * Creates a {@link PrefixMatcher} recognizing both forms of the bot's mention,
+	 * followed by a prefix and any additional prefixes. Use {@link #isMention(int)} to
+	 * tell whether a match was a mention.
+	 *
+	 * @param selfId
+	 *            The bot's user ID.
+	 * @param prefix
+	 *            The main prefix.
+	 * @param additionalPrefixes
+	 *            Additional prefixes.
+	 * @return The new {@link PrefixMatcher}.
+	 */
+	@Nonnull
+	public static PrefixMatcher forBot(long selfId, @Nonnull String prefix, @Nonnull List<String> additionalPrefixes) {
+		List<String> all = new ArrayList<>(MENTION_PREFIXES + 1 + additionalPrefixes.size());
+		all.add("<@" + selfId + ">");
+		all.add("<@!" + selfId + ">");
+		all.add(prefix);
+		all.addAll(additionalPrefixes);
+
+		return new PrefixMatcher(all);
+	}
+
+	/**
+	 * @param index
+	 *            The index of a prefix, as returned by {@link #match(CharSequence)}.
+	 * @return Whether that prefix is a mention, assuming this {@link PrefixMatcher} was
+	 *         created by {@link #forBot(long, String, List)}.
+	 */
+	public static boolean isMention(int index) {
+		return index >= 0 && index < MENTION_PREFIXES;
+	}
+
+	/**
+	 * Matches the start of a {@link CharSequence} against all prefixes.
+	 *
+	 * @param content
+	 *            The {@link CharSequence} to match.
+	 * @return The index of the longest prefix {@code content} starts with or {@code -1}
+	 *         if it doesn't start with any of them.
+	 */
+	public int match(@Nonnull CharSequence content) {
+		int matched = -1;
+		Node node = this.root;
+		for (int i = 0; i < content.length(); i++) {
+			node = node.get(content.charAt(i));
+			if (node == null)
+				break;
+
+			if (node.terminal >= 0)
+				matched = node.terminal;
+		}
+
+		return matched;
+	}
+
+	/**
+	 * Checks whether any of the prefixes starts with the given character. This can be
+	 * used to cheaply reject a message before doing anything else with it.
+	 *
+	 * @param c
+	 *            The first character of a message.
+	 * @return Whether a message starting with {@code c} could match a prefix.
+	 */
+	public boolean canStartWith(char c) {
+		if (c < 128)
+			return (this.asciiStarts[c >>> 6] & 1L << c) != 0;
+
+		return this.root.get(c) != null;
+	}
+
+	/**
+	 * @param index
+	 *            The index of a prefix, as returned by {@link #match(CharSequence)}.
+	 * @return The prefix at that index.
+	 */
+	@Nonnull
+	public String getPrefix(@Nonnegative int index) {
+		return this.prefixes[index];
+	}
+
+	/**
+	 * @return The number of prefixes in this {@link PrefixMatcher}.
+	 */
+	public int size() {
+		return this.prefixes.length;
+	}
+
+	private static final class Node {
+
+		char[] labels = NO_LABELS;
+		Node[] children = NO_CHILDREN;
+		int terminal = -1;
+
+		Node get(char c) {
+			int i = Arrays.binarySearch(this.labels, c);
+			return i < 0 ? null : this.children[i];
+		}
+
+		Node getOrCreate(char c) {
+			int i = Arrays.binarySearch(this.labels, c);
+			if (i >= 0)
+				return this.children[i];
+
+			int insertion = -i - 1;
+			char[] newLabels = new char[this.labels.length + 1];
+			Node[] newChildren = new Node[this.children.length + 1];
+			System.arraycopy(this.labels, 0, newLabels, 0, insertion);
+			System.arraycopy(this.children, 0, newChildren, 0, insertion);
+			System.arraycopy(this.labels, insertion, newLabels, insertion + 1, this.labels.length - insertion);
+			System.arraycopy(this.children, insertion, newChildren, insertion + 1, this.children.length - insertion);
+
+			Node child = new Node();
+			newLabels[insertion] = c;
+			newChildren[insertion] = child;
+			this.labels = newLabels;
+			this.children = newChildren;
+			return child;
+		}
+
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.github.markozajc.lithium.utilities;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A concurrent map keyed by primitive {@code long}s (usually snowflake IDs). Reads
+ * never lock and never box the key, writes are serialized. This makes it a good fit
+ * for data that is read on every message but changes rarely.
+ *
+ * @author Marko Zajc
+ *
+ * @param <V>
+ *            value type
+ */
+public class SnowflakeMap<V> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final Entry<?> TOMBSTONE = new Entry<>(0, null);
+
+	private volatile AtomicReferenceArray<Entry<V>> table;
+	private volatile int size;
+	private int used;
+	// Number of slots that are either live or tombstones, guarded by this
+
+	/**
+	 * Creates a new, empty {@link SnowflakeMap}.
+	 */
+	public SnowflakeMap() {
+		this.table = new AtomicReferenceArray<>(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Retrieves a value.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value mapped to that key or {@code null} if there is none
+	 */
+	@Nullable
+	public V get(long key) {
+		AtomicReferenceArray<Entry<V>> current = this.table;
+		int mask = current.length() - 1;
+		Entry<V> entry;
+		for (int slot = hash(key) & mask; (entry = current.get(slot)) != null; slot = (slot + 1) & mask) {
+			if (entry != TOMBSTONE && entry.key == key)
+				return entry.value;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @param key
+	 *            the key
+	 * @return whether a value is mapped to that key
+	 */
+	public boolean containsKey(long key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps a value to a key, replacing the old value, if any.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @return the previous value or {@code null} if there was none
+	 */
+	@Nullable
+	public synchronized V put(long key, @Nonnull V value) {
+		return insert(key, value, true);
+	}
+
+	/**
+	 * Maps a value to a key, unless a value is already mapped to it.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @return the current value or {@code null} if {@code value} was put
+	 */
+	@Nullable
+	public synchronized V putIfAbsent(long key, @Nonnull V value) {
+		return insert(key, value, false);
+	}
+
+	/**
+	 * Retrieves a value, computing and putting it if it's not present yet. The lookup
+	 * is lock-free if the value is present.
+	 *
+	 * @param key
+	 *            the key
+	 * @param function
+	 *            the function used to compute the value
+	 * @return the current (or computed) value
+	 */
+	@Nonnull
+	public V computeIfAbsent(long key, @Nonnull LongFunction<V> function) {
+		V value = get(key);
+		if (value != null)
+			return value;
+
+		synchronized (this) {
+			value = get(key);
+			if (value == null) {
+				value = function.apply(key);
+				insert(key, value, true);
+			}
+
+			return value;
+		}
+	}
+
+	/**
+	 * Removes a value.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the removed value or {@code null} if there was none
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public synchronized V remove(long key) {
+		AtomicReferenceArray<Entry<V>> current = this.table;
+		int mask = current.length() - 1;
+		Entry<V> entry;
+		for (int slot = hash(key) & mask; (entry = current.get(slot)) != null; slot = (slot + 1) & mask) {
+			if (entry != TOMBSTONE && entry.key == key) {
+				current.set(slot, (Entry<V>) TOMBSTONE);
+				this.size--;
+				return entry.value;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Removes all values.
+	 */
+	public synchronized void clear() {
+		this.table = new AtomicReferenceArray<>(DEFAULT_CAPACITY);
+		this.size = 0;
+		this.used = 0;
+	}
+
+	/**
+	 * @return the number of values in this map
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return a snapshot of all keys in this map
+	 */
+	@Nonnull
+	public long[] keys() {
+		AtomicReferenceArray<Entry<V>> current = this.table;
+		long[] keys = new long[current.length()];
+		int count = 0;
+		for (int i = 0; i < current.length(); i++) {
+			Entry<V> entry = current.get(i);
+			if (entry != null && entry != TOMBSTONE)
+				keys[count++] = entry.key;
+		}
+
+		long[] result = new long[count];
+		System.arraycopy(keys, 0, result, 0, count);
+		return result;
+	}
+
+	private V insert(long key, V value, boolean replace) {
+		if (value == null)
+			throw new IllegalArgumentException("Values can't be null.");
+
+		AtomicReferenceArray<Entry<V>> current = this.table;
+		int mask = current.length() - 1;
+		int free = -1;
+		int slot = hash(key) & mask;
+		Entry<V> entry;
+		for (; (entry = current.get(slot)) != null; slot = (slot + 1) & mask) {
+			if (entry == TOMBSTONE) {
+				if (free < 0)
+					free = slot;
+
+			} else if (entry.key == key) {
+				if (replace)
+					current.set(slot, new Entry<>(key, value));
+
+				return entry.value;
+			}
+		}
+
+		if (free >= 0) {
+			current.set(free, new Entry<>(key, value));
+			// Reuses the tombstone, which is already counted as used
+
+		} else {
+			current.set(slot, new Entry<>(key, value));
+			this.used++;
+		}
+		this.size++;
+
+		if (this.used * 2 > current.length())
+			rehash(current);
+
+		return null;
+	}
+
+	private void rehash(AtomicReferenceArray<Entry<V>> current) {
+		int capacity = current.length();
+		while (this.size * 4 > capacity)
+			capacity <<= 1;
+		// Grows if the table is at least quarter full, otherwise just drops the tombstones
+
+		AtomicReferenceArray<Entry<V>> rehashed = new AtomicReferenceArray<>(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < current.length(); i++) {
+			Entry<V> entry = current.get(i);
+			if (entry == null || entry == TOMBSTONE)
+				continue;
+
+			int slot = hash(entry.key) & mask;
+			while (rehashed.get(slot) != null)
+				slot = (slot + 1) & mask;
+			rehashed.set(slot, entry);
+		}
+
+		this.used = this.size;
+		this.table = rehashed;
+		// Readers still holding the old table see a stale but consistent view
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static final class Entry<V> {
+
+		final long key;
+		final V value;
+
+		Entry(long key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.github.markozajc.lithium.processes;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Access to virtual threads. This is the Java 21 variant of this class, packaged in
+ * {@code META-INF/versions/21} of the multi-release JAR.
+ *
+ * @author Marko Zajc
+ */
+public final class VirtualThreads {
+
+	private VirtualThreads() {}
+
+	/**
+	 * @return Whether virtual threads are available on this runtime.
+	 */
+	public static boolean isSupported() {
+		return true;
+	}
+
+	/**
+	 * Creates an {@link ExecutorService} that runs each task on a new virtual thread.
+	 *
+	 * @param name
+	 *            The prefix of the threads' names.
+	 * @return The new {@link ExecutorService}.
+	 */
+	@Nonnull
+	public static ExecutorService newExecutor(@Nonnull String name) {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+	}
+
+}